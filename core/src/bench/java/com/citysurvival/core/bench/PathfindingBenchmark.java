@@ -0,0 +1,285 @@
+package com.citysurvival.core.bench;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import com.citysurvival.core.io.TmxMapLoaderService;
+import com.citysurvival.core.logic.CostGrid;
+import com.citysurvival.core.logic.LandmarkTable;
+import com.citysurvival.core.logic.PathFinder;
+import com.citysurvival.core.logic.ReachabilityMap;
+import com.citysurvival.core.model.TileType;
+
+/**
+ * Compares the enemy path finders on city1.tmx and on synthetic large maps: nodes expanded, tiles examined and time per
+ * query, and checks their paths: bfs and jps must take the same number of steps, dial and alt the same cost as a plain
+ * binary-heap Dijkstra. The alt finder gets landmark tables computed for each map; their build time is reported.
+ *
+ * Queries mirror EnemyAISystem: the targets are the free tiles next to a "player" tile, which itself is impassable.
+ * "chase" queries start within the AI's 6-tile follow range; "long" queries pick any start in the player's region.
+ *
+ * Usage: gradle :core:benchPathfinding [-Pqueries=N]
+ */
+public final class PathfindingBenchmark {
+    private static final int LANDMARKS = 8;
+
+    public static void main(String[] args) throws Exception {
+        String tmx = args.length > 0 ? args[0] : "src/main/resources/assets/maps/city1.tmx";
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        TileType[][] city1 = loadCollision(new File(tmx));
+        run("city1.tmx", city1, new CostGrid(city1), queries);
+        run("blocks 256x256", cityBlocks(256, 256, 1), null, queries);
+        run("rubble 256x256", rubble(256, 256, 0.25, 2), null, queries);
+        TileType[][] blocks = cityBlocks(256, 256, 4);
+        run("weighted blocks 256x256", blocks, weighted(blocks, 10), queries);
+        run("blocks 1024x1024", cityBlocks(1024, 1024, 3), null, Math.max(50, queries / 10));
+    }
+
+    private static void run(String label, TileType[][] grid, CostGrid costs, int queries) {
+        if (costs == null) costs = new CostGrid(grid);
+        boolean weighted = costs.minCost() != costs.maxCost();
+        System.out.printf(Locale.ROOT, "%n%s (%d queries per set%s)%n", label, queries,
+                weighted ? ", costs " + costs.minCost() + ".." + costs.maxCost() : "");
+        long t0 = System.nanoTime();
+        LandmarkTable landmarks = LandmarkTable.compute(costs, new ReachabilityMap(grid), LANDMARKS);
+        System.out.printf(Locale.ROOT, "  %d landmarks in %.1f ms, %d KiB%n", landmarks.landmarkCount(),
+                (System.nanoTime() - t0) / 1e6, landmarks.landmarkCount() * grid.length * grid[0].length * 2 / 1024);
+        for (boolean chase : new boolean[] { true, false }) {
+            Query[] set = queries(grid, queries, chase, new Random(42));
+            String kind = chase ? "chase" : "long ";
+            // Weighted finders return costs, checked against Dijkstra; bfs and jps return steps, checked against bfs.
+            int[] reference = referenceCosts(grid, costs, set);
+            int[] steps = null;
+            for (String name : new String[] { "bfs", "jps", "dial", "alt" }) {
+                // Warm up, then measure on a fresh instance.
+                for (int w = 0; w < 3; w++) measure(finder(name, costs, landmarks), grid, set, null);
+                int[] lengths = new int[set.length];
+                Result r = measure(finder(name, costs, landmarks), grid, set, lengths);
+                if (steps == null) steps = lengths;
+                r.print(kind, set.length);
+                boolean costed = name.equals("dial") || name.equals("alt");
+                int[] expected = costed ? reference : steps;
+                int mismatches = 0;
+                for (int i = 0; i < set.length; i++) {
+                    if (lengths[i] != expected[i]) mismatches++;
+                }
+                if (mismatches > 0 || (weighted && costed)) System.out.printf(Locale.ROOT, "  %s %-4s path length mismatches: %d%n", kind, name, mismatches);
+            }
+        }
+    }
+
+    private static PathFinder finder(String name, CostGrid costs, LandmarkTable landmarks) {
+        PathFinder f = PathFinder.forName(name);
+        f.setCosts(costs);
+        f.setLandmarks(landmarks);
+        return f;
+    }
+
+    /** Path costs from a textbook binary-heap Dijkstra, to check the bucket queue against. */
+    private static int[] referenceCosts(TileType[][] grid, CostGrid costs, Query[] set) {
+        int width = grid.length;
+        int height = grid[0].length;
+        int[] out = new int[set.length];
+        int[] dist = new int[width * height];
+        for (int i = 0; i < set.length; i++) {
+            Query q = set[i];
+            out[i] = -1;
+            // Like the finders: no path when already next to the player.
+            if (isTarget(q.start, q)) continue;
+            Arrays.fill(dist, Integer.MAX_VALUE);
+            PriorityQueue<long[]> open = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+            dist[q.start] = 0;
+            open.add(new long[] { 0, q.start });
+            while (!open.isEmpty()) {
+                long[] top = open.poll();
+                int cur = (int) top[1];
+                if (top[0] != dist[cur]) continue;
+                if (isTarget(cur, q)) {
+                    out[i] = dist[cur];
+                    break;
+                }
+                int cx = cur / height;
+                int cy = cur % height;
+                int[][] dirs = { { 0, 1 }, { 0, -1 }, { -1, 0 }, { 1, 0 } };
+                for (int[] d : dirs) {
+                    int nx = cx + d[0];
+                    int ny = cy + d[1];
+                    int c = costs.cost(nx, ny);
+                    if (c == 0 || (nx == q.playerX && ny == q.playerY)) continue;
+                    int n = nx * height + ny;
+                    if (dist[cur] + c < dist[n]) {
+                        dist[n] = dist[cur] + c;
+                        open.add(new long[] { dist[n], n });
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    private static boolean isTarget(int t, Query q) {
+        for (int i = 0; i < q.targetCount; i++) {
+            if (q.targets[i] == t) return true;
+        }
+        return false;
+    }
+
+    private record Query(int start, int playerX, int playerY, int[] targets, int targetCount) {
+    }
+
+    private record Result(String name, long expanded, long scanned, long nanos) {
+        void print(String kind, int n) {
+            System.out.printf(Locale.ROOT, "  %s %-4s expanded/query %10.1f  scanned/query %10.1f  %8.2f us/query%n",
+                    kind, name, expanded / (double) n, scanned / (double) n, nanos / 1e3 / n);
+        }
+    }
+
+    private static Result measure(PathFinder finder, TileType[][] grid, Query[] set, int[] lengths) {
+        int width = grid.length;
+        int height = grid[0].length;
+        long start = System.nanoTime();
+        for (int i = 0; i < set.length; i++) {
+            Query q = set[i];
+            int step = finder.firstStep(width, height,
+                    (x, y) -> grid[x][y].walkable && !(x == q.playerX && y == q.playerY), q.start, q.targets, q.targetCount);
+            if (lengths != null) lengths[i] = step == -1 ? -1 : finder.lastPathLength();
+        }
+        return new Result(finder.name(), finder.expanded(), finder.scanned(), System.nanoTime() - start);
+    }
+
+    private static Query[] queries(TileType[][] grid, int n, boolean chase, Random rng) {
+        int width = grid.length;
+        int height = grid[0].length;
+        ReachabilityMap regions = new ReachabilityMap(grid);
+        Query[] out = new Query[n];
+        int made = 0;
+        while (made < n) {
+            int px = rng.nextInt(width);
+            int py = rng.nextInt(height);
+            if (!grid[px][py].walkable) continue;
+            int sx;
+            int sy;
+            if (chase) {
+                sx = px + rng.nextInt(13) - 6;
+                sy = py + rng.nextInt(13) - 6;
+                if (Math.abs(sx - px) + Math.abs(sy - py) > 6) continue;
+            } else {
+                sx = rng.nextInt(width);
+                sy = rng.nextInt(height);
+            }
+            if ((sx == px && sy == py) || !regions.connected(sx, sy, px, py)) continue;
+
+            int[] targets = new int[4];
+            int count = 0;
+            int[][] dirs = { { 0, 1 }, { 0, -1 }, { -1, 0 }, { 1, 0 } };
+            for (int[] d : dirs) {
+                int tx = px + d[0];
+                int ty = py + d[1];
+                if (tx < 0 || ty < 0 || tx >= width || ty >= height || !grid[tx][ty].walkable) continue;
+                targets[count++] = tx * height + ty;
+            }
+            if (count == 0) continue;
+            out[made++] = new Query(sx * height + sy, px, py, targets, count);
+        }
+        return out;
+    }
+
+    /** Collision of a TMX file, read the same way as TmxMapLoaderService but without needing a GL context. */
+    private static TileType[][] loadCollision(File tmx) throws Exception {
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(tmx);
+        Element map = doc.getDocumentElement();
+        int width = Integer.parseInt(map.getAttribute("width"));
+        int height = Integer.parseInt(map.getAttribute("height"));
+        int tile = Integer.parseInt(map.getAttribute("tilewidth"));
+        int tileH = Integer.parseInt(map.getAttribute("tileheight"));
+
+        boolean[][] blocked = new boolean[width][height];
+        NodeList layers = map.getElementsByTagName("layer");
+        for (int i = 0; i < layers.getLength(); i++) {
+            Element layer = (Element) layers.item(i);
+            String name = layer.getAttribute("name").toLowerCase(Locale.ROOT);
+            if (!name.equals("collision") && !name.equals("collisions") && !name.equals("buildings")) continue;
+            String[] cells = layer.getElementsByTagName("data").item(0).getTextContent().trim().split("\\s*,\\s*");
+            for (int row = 0; row < height; row++) {
+                for (int x = 0; x < width; x++) {
+                    // TMX rows run top-down; libGDX layers are y-up.
+                    if (!cells[row * width + x].equals("0")) blocked[x][height - 1 - row] = true;
+                }
+            }
+        }
+        int count = 0;
+        for (boolean[] col : blocked) {
+            for (boolean b : col) if (b) count++;
+        }
+
+        int spawnX = -1;
+        int spawnY = -1;
+        NodeList objects = map.getElementsByTagName("object");
+        for (int i = 0; i < objects.getLength(); i++) {
+            Element o = (Element) objects.item(i);
+            if (!"player".equalsIgnoreCase(o.getAttribute("name").trim())) continue;
+            float ox = Float.parseFloat(o.getAttribute("x"));
+            float oy = Float.parseFloat(o.getAttribute("y"));
+            float oh = o.hasAttribute("height") ? Float.parseFloat(o.getAttribute("height")) : 0f;
+            spawnX = (int) (ox / tile);
+            spawnY = (int) ((height * tileH - oy - oh) / tile);
+        }
+        return TmxMapLoaderService.collisionFromMask(blocked, count, spawnX, spawnY);
+    }
+
+    /** Square buildings separated by 3-tile streets with some random clutter on them. */
+    private static TileType[][] cityBlocks(int width, int height, long seed) {
+        Random rng = new Random(seed);
+        TileType[][] g = new TileType[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                boolean building = x % 14 >= 3 && y % 14 >= 3;
+                boolean clutter = !building && rng.nextInt(100) < 4;
+                g[x][y] = building || clutter ? TileType.WALL : TileType.FLOOR;
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Streets at the default cost with sidewalks (next to buildings) one dearer, every fourth street line a road at
+     * cost 1, and random rubble patches up to maxCost.
+     */
+    private static CostGrid weighted(TileType[][] g, int maxCost) {
+        Random rng = new Random(7);
+        CostGrid costs = new CostGrid(g);
+        int width = g.length;
+        int height = g[0].length;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (!g[x][y].walkable) continue;
+                boolean sidewalk = costs.cost(x + 1, y) == 0 || costs.cost(x - 1, y) == 0
+                        || costs.cost(x, y + 1) == 0 || costs.cost(x, y - 1) == 0;
+                int c = sidewalk ? CostGrid.DEFAULT_COST + 1 : x % 4 == 0 || y % 4 == 0 ? 1 : CostGrid.DEFAULT_COST;
+                if (rng.nextInt(100) < 10) c = CostGrid.DEFAULT_COST + 1 + rng.nextInt(maxCost - CostGrid.DEFAULT_COST);
+                costs.setCost(x, y, c);
+            }
+        }
+        return costs;
+    }
+
+    /** Uniform random obstacles; the hard case for jump point search. */
+    private static TileType[][] rubble(int width, int height, double density, long seed) {
+        Random rng = new Random(seed);
+        TileType[][] g = new TileType[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) g[x][y] = rng.nextDouble() < density ? TileType.WALL : TileType.FLOOR;
+        }
+        return g;
+    }
+}
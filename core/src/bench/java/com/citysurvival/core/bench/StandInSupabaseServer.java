@@ -0,0 +1,151 @@
+package com.citysurvival.core.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Minimal in-memory imitation of the PostgREST endpoint used by the game (table game_save only).
+ *
+ * Supports upserts of a single row or an array of rows, and selects filtered by player_id/slot with
+ * select=save_json. Good enough to measure client-side overhead without any network, and to test the cloud sync
+ * queue: it counts the rows upserted per (player, slot) and, like a check constraint, rejects a whole upsert with
+ * 400 when any row has a slot below 1.
+ */
+public final class StandInSupabaseServer implements AutoCloseable {
+    private final HttpServer server;
+    private final Gson gson = new Gson();
+    private final Map<String, JsonObject> rows = new ConcurrentHashMap<>();
+    private final Map<String, Integer> upserts = new ConcurrentHashMap<>();
+
+    static {
+        // Otherwise Nagle + delayed ACKs add ~40ms to every keep-alive round trip and swamp the measurement.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public StandInSupabaseServer() throws IOException {
+        this(0);
+    }
+
+    /** Listens on a fixed port (0 = any free one), e.g. to come back where a stopped server was. */
+    public StandInSupabaseServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/rest/v1/game_save", this::handle);
+        server.setExecutor(Executors.newFixedThreadPool(4, r -> {
+            Thread t = new Thread(r, "stand-in-supabase");
+            t.setDaemon(true);
+            return t;
+        }));
+        server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + port();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /** Number of rows upserted for (player, slot) so far, counting every request. */
+    public int upsertCount(String playerId, int slot) {
+        return upserts.getOrDefault(playerId + "#" + slot, 0);
+    }
+
+    /** The stored save_json of (player, slot) as JSON text, or null. */
+    public String saveJson(String playerId, int slot) {
+        JsonObject row = rows.get(playerId + "#" + slot);
+        return row == null ? null : gson.toJson(row.get("save_json"));
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try (ex) {
+            switch (ex.getRequestMethod()) {
+                case "POST" -> upsert(ex);
+                case "GET" -> select(ex);
+                default -> respond(ex, 405, "[]");
+            }
+        }
+    }
+
+    private void upsert(HttpExchange ex) throws IOException {
+        JsonElement body = gson.fromJson(new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8), JsonElement.class);
+        JsonArray stored = new JsonArray();
+        List<JsonObject> incoming = new ArrayList<>();
+        if (body.isJsonArray()) {
+            for (JsonElement e : body.getAsJsonArray()) incoming.add(e.getAsJsonObject());
+        } else {
+            incoming.add(body.getAsJsonObject());
+        }
+        for (JsonObject row : incoming) {
+            if (row.get("slot").getAsInt() < 1) {
+                respond(ex, 400, "{\"code\":\"23514\",\"message\":\"slot must be positive\"}");
+                return;
+            }
+        }
+        for (JsonObject row : incoming) {
+            String key = row.get("player_id").getAsString() + "#" + row.get("slot").getAsInt();
+            rows.put(key, row);
+            upserts.merge(key, 1, Integer::sum);
+            stored.add(row);
+        }
+        respond(ex, 201, gson.toJson(stored));
+    }
+
+    private void select(HttpExchange ex) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        String query = ex.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        String player = stripEq(params.get("player_id"));
+        String slot = stripEq(params.get("slot"));
+
+        JsonArray result = new JsonArray();
+        for (Map.Entry<String, JsonObject> e : rows.entrySet()) {
+            JsonObject row = e.getValue();
+            if (player != null && !player.equals(row.get("player_id").getAsString())) continue;
+            if (slot != null && !slot.equals(row.get("slot").getAsString())) continue;
+            JsonObject out = new JsonObject();
+            out.add("save_json", row.get("save_json"));
+            result.add(out);
+        }
+        respond(ex, 200, gson.toJson(result));
+    }
+
+    private static String stripEq(String v) {
+        return v != null && v.startsWith("eq.") ? v.substring(3) : v;
+    }
+
+    private static void respond(HttpExchange ex, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(code, bytes.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
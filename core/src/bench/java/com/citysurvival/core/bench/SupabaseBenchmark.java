@@ -0,0 +1,81 @@
+package com.citysurvival.core.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.citysurvival.core.io.SaveGameService;
+import com.citysurvival.core.model.Enemy;
+import com.citysurvival.core.model.GameStats;
+import com.citysurvival.core.model.Player;
+import com.citysurvival.core.model.WorldObject;
+import com.citysurvival.core.model.items.Food;
+import com.citysurvival.core.model.items.Weapon;
+import com.citysurvival.core.supabase.SupabaseClient;
+import com.citysurvival.core.supabase.SupabaseHttp;
+import com.citysurvival.core.supabase.SupabaseMetrics;
+
+/**
+ * Measures the round-trip overhead of {@link SupabaseClient#upsert} and {@link SupabaseClient#select} through the
+ * shared HTTP client against {@link StandInSupabaseServer} on localhost.
+ *
+ * Usage: gradle :core:benchSupabase [-Piterations=N]
+ */
+public final class SupabaseBenchmark {
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int warmup = Math.max(100, iterations / 10);
+
+        String saveJson = new String(new SaveGameService().toJsonBytes(sampleState()), java.nio.charset.StandardCharsets.UTF_8);
+        String row = "{\"player_id\":\"bench\",\"slot\":1,\"save_json\":" + saveJson + "}";
+        String query = "?player_id=eq.bench&slot=eq.1&select=save_json&limit=1";
+
+        try (StandInSupabaseServer server = new StandInSupabaseServer()) {
+            SupabaseClient client = new SupabaseClient(server.url(), "bench-key");
+            SupabaseMetrics metrics = SupabaseHttp.metrics();
+
+            for (int i = 0; i < warmup; i++) {
+                client.upsert("game_save", row);
+                client.select("game_save", query);
+            }
+            metrics.reset();
+
+            long upsertNanos = time(iterations, () -> client.upsert("game_save", row));
+            long selectNanos = time(iterations, () -> client.select("game_save", query));
+
+            System.out.printf("save size: %d bytes, iterations: %d (after %d warmup)%n", saveJson.length(), iterations, warmup);
+            System.out.printf("upsert: %.1f us/op%n", upsertNanos / 1e3 / iterations);
+            System.out.printf("select: %.1f us/op%n", selectNanos / 1e3 / iterations);
+            System.out.print(metrics.report());
+        }
+    }
+
+    private interface Op {
+        void run() throws Exception;
+    }
+
+    private static long time(int iterations, Op op) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) op.run();
+        return System.nanoTime() - start;
+    }
+
+    /** A mid-game sized save: some inventory, a few dozen enemies and pickups. */
+    private static SaveGameService.SaveState sampleState() {
+        Player player = new Player(10, 12, 10);
+        player.inventory().add(new Weapon("Weapon L1", 1));
+        player.inventory().add(new Weapon("Weapon L2", 2));
+        for (int i = 0; i < 5; i++) player.inventory().add(new Food("Food", 1));
+
+        List<Enemy> enemies = new ArrayList<>();
+        for (int i = 0; i < 40; i++) enemies.add(new Enemy(i % 60, i / 2, new Weapon("Enemy", 1 + (i % 2)), 1 + (i % 2)));
+
+        List<WorldObject> objects = new ArrayList<>();
+        for (int i = 0; i < 30; i++) objects.add(new WorldObject(i, 59 - i, i % 3 == 0 ? new Weapon("Weapon L1", 1) : new Food("Food", 1)));
+
+        GameStats stats = new GameStats();
+        stats.steps = 321;
+        stats.enemiesDefeated = 7;
+        stats.itemsCollected = 12;
+        return SaveGameService.buildState("maps/city1.tmx", player, enemies, objects, stats);
+    }
+}
@@ -1,11 +1,33 @@
 package com.citysurvival.core;
 
 import com.badlogic.gdx.Game;
+import com.citysurvival.core.audio.AudioBootstrap;
+import com.citysurvival.core.io.GameAssets;
 import com.citysurvival.core.screens.MainMenuScreen;
 
 public class CitySurvivalGame extends Game {
+    private GameAssets assets;
+
     @Override
     public void create() {
+        StartupTimer.mark("gdxReady");
+
+        // Synthesize fallback audio while the menu is up instead of when the game screen loads.
+        AudioBootstrap.prepareFallbacksAsync().thenRun(() -> StartupTimer.mark("audioReady"));
+
+        assets = new GameAssets();
+        assets.queueAll();
+        StartupTimer.mark("assetsQueued");
         setScreen(new MainMenuScreen(this));
     }
+
+    public GameAssets assets() {
+        return assets;
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        if (assets != null) assets.dispose();
+    }
 }
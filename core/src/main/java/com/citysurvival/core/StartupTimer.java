@@ -0,0 +1,89 @@
+package com.citysurvival.core;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Records how long launch phases take, measured from JVM process start, and writes them to startup_timing.json in
+ * the working directory once the menu has drawn its first frame and the background assets are loaded.
+ *
+ * Phases marked after that (e.g. entering the game) are appended and the file is rewritten. With
+ * {@code -Dcitysurvival.exitAfterStartup=true} the app exits right after the report, which is what the AppCDS
+ * training run of {@code :desktop:cdsArchive} uses.
+ */
+public final class StartupTimer {
+    public static final String FILE = "startup_timing.json";
+    public static final String EXIT_PROPERTY = "citysurvival.exitAfterStartup";
+
+    private static final long ORIGIN_NANOS = System.nanoTime();
+    // Process start -> class init; -1 when the OS doesn't tell us, phases are then relative to class init.
+    private static final long PROCESS_TO_ORIGIN_MS = ProcessHandle.current().info().startInstant()
+            .map(i -> Math.max(0L, System.currentTimeMillis() - i.toEpochMilli()))
+            .orElse(-1L);
+
+    private static final Map<String, Double> PHASES = new LinkedHashMap<>();
+    private static boolean reported = false;
+
+    private StartupTimer() {
+    }
+
+    /** Records the first occurrence of a phase; later calls with the same name are ignored. Any thread. */
+    public static synchronized void mark(String phase) {
+        if (PHASES.containsKey(phase)) return;
+        double ms = (System.nanoTime() - ORIGIN_NANOS) / 1e6 + Math.max(0L, PROCESS_TO_ORIGIN_MS);
+        PHASES.put(phase, ms);
+        if (reported) write();
+    }
+
+    /** Marks the end of startup and writes the report. Render thread. */
+    public static void complete() {
+        synchronized (StartupTimer.class) {
+            if (reported) return;
+            mark("startupComplete");
+            reported = true;
+            write();
+            Gdx.app.log("STARTUP", summary());
+        }
+        if (Boolean.getBoolean(EXIT_PROPERTY)) Gdx.app.exit();
+    }
+
+    // Caller holds the lock.
+    private static void write() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"processStartKnown\": ").append(PROCESS_TO_ORIGIN_MS >= 0).append(",\n");
+        String archive = sharedArchive();
+        sb.append("  \"sharedArchive\": ").append(archive == null ? "null" : "\"" + archive.replace("\\", "\\\\").replace("\"", "\\\"") + "\"").append(",\n");
+        sb.append("  \"phasesMs\": {");
+        boolean first = true;
+        for (Map.Entry<String, Double> e : PHASES.entrySet()) {
+            sb.append(first ? "\n" : ",\n");
+            sb.append(String.format(Locale.ROOT, "    \"%s\": %.1f", e.getKey(), e.getValue()));
+            first = false;
+        }
+        sb.append("\n  }\n}\n");
+        try {
+            Gdx.files.local(FILE).writeString(sb.toString(), false);
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("STARTUP", "Could not write " + FILE, e);
+        }
+    }
+
+    private static String summary() {
+        StringBuilder sb = new StringBuilder("Startup (ms since JVM start):");
+        PHASES.forEach((k, v) -> sb.append(String.format(Locale.ROOT, " %s=%.0f", k, v)));
+        return sb.toString();
+    }
+
+    private static String sharedArchive() {
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (arg.startsWith("-XX:SharedArchiveFile=")) return arg.substring("-XX:SharedArchiveFile=".length());
+        }
+        return null;
+    }
+}
@@ -1,8 +1,16 @@
 package com.citysurvival.core.audio;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
@@ -11,15 +19,46 @@ import com.badlogic.gdx.files.FileHandle;
  * Generates simple fallback WAV assets into local storage when packaged audio assets are missing.
  *
  * This avoids "silent game" when users haven't added audio files under assets/audio/ yet.
+ *
+ * Each generated file gets a sidecar "&lt;name&gt;.hash" with a hash of the preset parameters; a cached WAV is only
+ * reused while that hash matches, so changing a preset regenerates it.
  */
 public final class AudioBootstrap {
     private static final String TAG = "AudioBootstrap";
 
     private static final int SAMPLE_RATE = 44100;
+    // Bump when the synthesis code changes in a way the preset parameters don't capture.
+    private static final int SYNTH_VERSION = 1;
+
+    private static CompletableFuture<Void> fallbacks;
 
     private AudioBootstrap() {
     }
 
+    /**
+     * Makes sure all fallback WAVs exist, synthesizing any missing/stale ones on a background thread.
+     * Safe to call repeatedly; the work only runs once and later calls return the same future.
+     */
+    public static synchronized CompletableFuture<Void> prepareFallbacksAsync() {
+        if (fallbacks != null) return fallbacks;
+
+        fallbacks = new CompletableFuture<>();
+        Thread t = new Thread(() -> {
+            try {
+                ensureFallbackHit();
+                ensureFallbackAttack();
+                ensureFallbackSuccess();
+                ensureFallbackBgm();
+            } finally {
+                fallbacks.complete(null);
+            }
+        }, "audio-bootstrap");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+        return fallbacks;
+    }
+
     public static FileHandle ensureFallbackBgm() {
         // Keep in local storage so it works even when running from a jar.
         return ensureWav(Gdx.files.local("audio_generated/bgm.wav"), WavPreset.BGM);
@@ -37,17 +76,25 @@ public final class AudioBootstrap {
         return ensureWav(Gdx.files.local("audio_generated/success.wav"), WavPreset.SUCCESS);
     }
 
-    private static FileHandle ensureWav(FileHandle handle, WavPreset preset) {
+    // Synchronized so a direct call and the background preparation never write the same file concurrently.
+    private static synchronized FileHandle ensureWav(FileHandle handle, WavPreset preset) {
         try {
-            if (handle.exists() && handle.length() > 64) return handle;
+            FileHandle hashFile = handle.sibling(handle.name() + ".hash");
+            String hash = preset.contentHash();
+            if (handle.exists() && handle.length() > 64 && hashFile.exists() && hash.equals(hashFile.readString().trim())) {
+                return handle;
+            }
             handle.parent().mkdirs();
 
-            byte[] wavBytes = buildWavPcm16MonoBytes(preset);
-            // Overwrite to avoid partial/corrupt files.
-            handle.writeBytes(wavBytes, false);
+            ByteBuffer wav = buildWavPcm16Mono(preset);
+            // Invalidate first and write the hash last, each file via temp + atomic move: a crash at any point leaves
+            // either no hash or one that doesn't match, so a truncated WAV is never taken for a valid one.
+            hashFile.delete();
+            writeAtomically(handle, wav.array());
+            writeAtomically(hashFile, hash.getBytes(StandardCharsets.UTF_8));
             Gdx.app.log(TAG, "Generated fallback audio: " + handle.path());
             return handle;
-        } catch (RuntimeException e) {
+        } catch (IOException | RuntimeException e) {
             // Avoid crashing the game if filesystem/audio isn't available.
             try {
                 Gdx.app.error(TAG, "Failed to generate fallback audio: " + handle.path(), e);
@@ -58,134 +105,136 @@ public final class AudioBootstrap {
     }
 
     private enum WavPreset {
-        BGM,
-        HIT,
-        ATTACK,
-        SUCCESS
-    }
+        // ~4 seconds of a simple arpeggio-ish loop.
+        BGM(4000, 0.18f, 220f, 277.18f, 329.63f, 440f),
+        HIT(120, 0.55f, 180f, 120f),
+        ATTACK(90, 0.65f, 880f, 660f),
+        SUCCESS(650, 0.35f, 523.25f, 659.25f, 783.99f); // C5, E5, G5
+
+        final int lengthMs;
+        final float baseVolume;
+        final float[] freqs;
+
+        WavPreset(int lengthMs, float baseVolume, float... freqs) {
+            this.lengthMs = lengthMs;
+            this.baseVolume = baseVolume;
+            this.freqs = freqs;
+        }
 
-    private static byte[] buildWavPcm16MonoBytes(WavPreset preset) {
-        int lengthMs;
-        float baseVolume;
-        float[] freqs;
-
-        switch (preset) {
-            case BGM -> {
-                // ~4 seconds of a simple arpeggio-ish loop.
-                lengthMs = 4000;
-                baseVolume = 0.18f;
-                freqs = new float[]{220f, 277.18f, 329.63f, 440f};
-            }
-            case HIT -> {
-                lengthMs = 120;
-                baseVolume = 0.55f;
-                freqs = new float[]{180f, 120f};
-            }
-            case ATTACK -> {
-                lengthMs = 90;
-                baseVolume = 0.65f;
-                freqs = new float[]{880f, 660f};
-            }
-            case SUCCESS -> {
-                lengthMs = 650;
-                baseVolume = 0.35f;
-                freqs = new float[]{523.25f, 659.25f, 783.99f}; // C5, E5, G5
+        String contentHash() {
+            String params = SYNTH_VERSION + "|" + SAMPLE_RATE + "|" + name() + "|" + lengthMs + "|" + baseVolume + "|" + Arrays.toString(freqs);
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(params.getBytes(StandardCharsets.UTF_8));
+                StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < 8; i++) sb.append(String.format("%02x", digest[i]));
+                return sb.toString();
+            } catch (NoSuchAlgorithmException e) {
+                return Integer.toHexString(params.hashCode());
             }
-            default -> throw new IllegalStateException("Unexpected preset: " + preset);
         }
+    }
+
+    private static void writeAtomically(FileHandle target, byte[] bytes) throws IOException {
+        Path path = target.file().toPath();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(tmp, bytes);
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static ByteBuffer buildWavPcm16Mono(WavPreset preset) {
+        int lengthMs = preset.lengthMs;
+        float baseVolume = preset.baseVolume;
+        float[] freqs = preset.freqs;
 
         int sampleCount = (int) ((long) SAMPLE_RATE * lengthMs / 1000L);
         if (sampleCount <= 1) sampleCount = 1;
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream(44 + sampleCount * 2);
-        try {
-            // Write WAV header, fill later with sizes.
-            writeAscii(baos, "RIFF");
-            writeLEInt(baos, 36 + sampleCount * 2);
-            writeAscii(baos, "WAVE");
-
-            // fmt chunk
-            writeAscii(baos, "fmt ");
-            writeLEInt(baos, 16); // PCM
-            writeLEShort(baos, (short) 1); // PCM
-            writeLEShort(baos, (short) 1); // mono
-            writeLEInt(baos, SAMPLE_RATE);
-            writeLEInt(baos, SAMPLE_RATE * 2); // byte rate
-            writeLEShort(baos, (short) 2); // block align
-            writeLEShort(baos, (short) 16); // bits
-
-            // data chunk
-            writeAscii(baos, "data");
-            writeLEInt(baos, sampleCount * 2);
-
-            // Samples
-            for (int i = 0; i < sampleCount; i++) {
-                float t = i / (float) SAMPLE_RATE;
-
-                float env;
-                switch (preset) {
-                    case BGM -> env = 1.0f;
-                    default -> {
-                        // Simple fast decay for SFX.
-                        float k = i / (float) sampleCount;
-                        env = (1.0f - k);
-                        env = env * env;
-                    }
+        // Header and samples go straight into one buffer of the final size.
+        ByteBuffer buf = ByteBuffer.allocate(44 + sampleCount * 2).order(ByteOrder.LITTLE_ENDIAN);
+
+        buf.put("RIFF".getBytes(StandardCharsets.US_ASCII));
+        buf.putInt(36 + sampleCount * 2);
+        buf.put("WAVE".getBytes(StandardCharsets.US_ASCII));
+
+        // fmt chunk
+        buf.put("fmt ".getBytes(StandardCharsets.US_ASCII));
+        buf.putInt(16); // PCM
+        buf.putShort((short) 1); // PCM
+        buf.putShort((short) 1); // mono
+        buf.putInt(SAMPLE_RATE);
+        buf.putInt(SAMPLE_RATE * 2); // byte rate
+        buf.putShort((short) 2); // block align
+        buf.putShort((short) 16); // bits
+
+        // data chunk
+        buf.put("data".getBytes(StandardCharsets.US_ASCII));
+        buf.putInt(sampleCount * 2);
+
+        // Samples
+        for (int i = 0; i < sampleCount; i++) {
+            float t = i / (float) SAMPLE_RATE;
+
+            float env;
+            switch (preset) {
+                case BGM -> env = 1.0f;
+                default -> {
+                    // Simple fast decay for SFX.
+                    float k = i / (float) sampleCount;
+                    env = (1.0f - k);
+                    env = env * env;
                 }
+            }
 
-                float sample;
-                switch (preset) {
-                    case BGM -> {
-                        // Switch note every 0.5s.
-                        int note = (int) (t / 0.5f) % freqs.length;
-                        float f = freqs[note];
-                        sample = (float) Math.sin(2.0 * Math.PI * f * t);
-
-                        // Add a subtle second harmonic for texture.
-                        sample = (sample * 0.75f) + (float) Math.sin(2.0 * Math.PI * (f * 2f) * t) * 0.25f;
-
-                        // Gentle fade to reduce clicks on looping.
-                        float fade = 1f;
-                        float edge = 0.02f; // 20ms
-                        if (t < edge) fade = t / edge;
-                        float remaining = (lengthMs / 1000f) - t;
-                        if (remaining < edge) fade = Math.min(fade, remaining / edge);
-                        env *= clamp01(fade);
-                    }
-                    case SUCCESS -> {
-                        // Simple 3-note rising chime.
-                        float totalSec = lengthMs / 1000f;
-                        float noteLen = totalSec / 3f;
-                        int note = Math.min(2, (int) (t / noteLen));
-                        float f = freqs[note];
-                        float tt = t - (note * noteLen);
-
-                        float localEnv = 1f;
-                        float edge = 0.01f;
-                        if (tt < edge) localEnv = tt / edge;
-                        float remaining = noteLen - tt;
-                        if (remaining < edge) localEnv = Math.min(localEnv, remaining / edge);
-
-                        // A bit less decay so the "chime" reads clearly.
-                        env = clamp01(localEnv) * (0.85f + 0.15f * env);
-                        sample = (float) Math.sin(2.0 * Math.PI * f * t);
-                    }
-                    default -> {
-                        // A short two-tone blip.
-                        float f = (i < sampleCount / 2) ? freqs[0] : freqs[1];
-                        sample = (float) Math.sin(2.0 * Math.PI * f * t);
-                    }
+            float sample;
+            switch (preset) {
+                case BGM -> {
+                    // Switch note every 0.5s.
+                    int note = (int) (t / 0.5f) % freqs.length;
+                    float f = freqs[note];
+                    sample = (float) Math.sin(2.0 * Math.PI * f * t);
+
+                    // Add a subtle second harmonic for texture.
+                    sample = (sample * 0.75f) + (float) Math.sin(2.0 * Math.PI * (f * 2f) * t) * 0.25f;
+
+                    // Gentle fade to reduce clicks on looping.
+                    float fade = 1f;
+                    float edge = 0.02f; // 20ms
+                    if (t < edge) fade = t / edge;
+                    float remaining = (lengthMs / 1000f) - t;
+                    if (remaining < edge) fade = Math.min(fade, remaining / edge);
+                    env *= clamp01(fade);
+                }
+                case SUCCESS -> {
+                    // Simple 3-note rising chime.
+                    float totalSec = lengthMs / 1000f;
+                    float noteLen = totalSec / 3f;
+                    int note = Math.min(2, (int) (t / noteLen));
+                    float f = freqs[note];
+                    float tt = t - (note * noteLen);
+
+                    float localEnv = 1f;
+                    float edge = 0.01f;
+                    if (tt < edge) localEnv = tt / edge;
+                    float remaining = noteLen - tt;
+                    if (remaining < edge) localEnv = Math.min(localEnv, remaining / edge);
+
+                    // A bit less decay so the "chime" reads clearly.
+                    env = clamp01(localEnv) * (0.85f + 0.15f * env);
+                    sample = (float) Math.sin(2.0 * Math.PI * f * t);
+                }
+                default -> {
+                    // A short two-tone blip.
+                    float f = (i < sampleCount / 2) ? freqs[0] : freqs[1];
+                    sample = (float) Math.sin(2.0 * Math.PI * f * t);
                 }
-
-                float v = baseVolume * env;
-                int pcm = (int) (clamp(sample, -1f, 1f) * v * 32767);
-                writeLEShort(baos, (short) pcm);
             }
-        } catch (IOException impossible) {
-            // ByteArrayOutputStream shouldn't throw.
+
+            float v = baseVolume * env;
+            int pcm = (int) (clamp(sample, -1f, 1f) * v * 32767);
+            buf.putShort((short) pcm);
         }
 
-        return baos.toByteArray();
+        return buf;
     }
 
     private static float clamp01(float v) {
@@ -197,20 +246,4 @@ public final class AudioBootstrap {
         if (v > max) return max;
         return v;
     }
-
-    private static void writeAscii(OutputStream os, String s) throws IOException {
-        os.write(s.getBytes());
-    }
-
-    private static void writeLEInt(OutputStream os, int v) throws IOException {
-        os.write(v & 0xFF);
-        os.write((v >>> 8) & 0xFF);
-        os.write((v >>> 16) & 0xFF);
-        os.write((v >>> 24) & 0xFF);
-    }
-
-    private static void writeLEShort(OutputStream os, short v) throws IOException {
-        os.write(v & 0xFF);
-        os.write((v >>> 8) & 0xFF);
-    }
 }
@@ -0,0 +1,94 @@
+package com.citysurvival.core.audio;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Collects sound effect requests during a frame and plays them once in {@link #flush()}.
+ *
+ * Requests for the same {@link Sound} within one frame are coalesced into a single voice at the loudest requested
+ * volume, and each sound is limited to a fixed number of concurrent voices: when the limit is reached the oldest voice
+ * of that sound is stopped and its slot reused.
+ */
+public class SfxMixer {
+    private static final int MAX_REQUESTS_PER_FRAME = 16;
+
+    private final int maxVoicesPerSound;
+
+    // Pending requests for the current frame; tiny, so a linear scan beats a map.
+    private final Sound[] pendingSounds = new Sound[MAX_REQUESTS_PER_FRAME];
+    private final float[] pendingVolumes = new float[MAX_REQUESTS_PER_FRAME];
+    private int pendingCount = 0;
+
+    private final Map<Sound, VoicePool> voices = new IdentityHashMap<>();
+
+    private int coalesced = 0;
+
+    public SfxMixer(int maxVoicesPerSound) {
+        this.maxVoicesPerSound = Math.max(1, maxVoicesPerSound);
+    }
+
+    /** Queues a sound for the end of the frame. Null sounds and non-positive volumes are ignored. */
+    public void request(Sound sound, float volume) {
+        if (sound == null || volume <= 0f) return;
+
+        for (int i = 0; i < pendingCount; i++) {
+            if (pendingSounds[i] == sound) {
+                pendingVolumes[i] = Math.max(pendingVolumes[i], volume);
+                coalesced++;
+                return;
+            }
+        }
+        // More distinct sounds than slots in one frame: the extra ones wouldn't be audible anyway.
+        if (pendingCount == MAX_REQUESTS_PER_FRAME) return;
+
+        pendingSounds[pendingCount] = sound;
+        pendingVolumes[pendingCount] = volume;
+        pendingCount++;
+    }
+
+    /** Plays everything requested since the last flush. Call once per frame from the render thread. */
+    public void flush() {
+        for (int i = 0; i < pendingCount; i++) {
+            Sound sound = pendingSounds[i];
+            voices.computeIfAbsent(sound, s -> new VoicePool(maxVoicesPerSound)).play(sound, pendingVolumes[i]);
+            pendingSounds[i] = null;
+        }
+        pendingCount = 0;
+    }
+
+    /** Drops pending requests and voice bookkeeping; call before disposing the sounds. */
+    public void clear() {
+        for (int i = 0; i < pendingCount; i++) pendingSounds[i] = null;
+        pendingCount = 0;
+        voices.clear();
+    }
+
+    public int coalescedRequests() { return coalesced; }
+
+    /** Ring of voice ids for one sound; the next slot always holds the oldest voice. */
+    private static final class VoicePool {
+        private final long[] ids;
+        private int next = 0;
+
+        VoicePool(int size) {
+            ids = new long[size];
+            Arrays.fill(ids, -1L);
+        }
+
+        void play(Sound sound, float volume) {
+            try {
+                long oldest = ids[next];
+                // Usually finished long ago, in which case stopping it is a no-op.
+                if (oldest != -1L) sound.stop(oldest);
+                ids[next] = sound.play(volume);
+                next = (next + 1) % ids.length;
+            } catch (GdxRuntimeException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.citysurvival.core.input;
+
+import com.badlogic.gdx.Input;
+
+/** Everything the player can ask the game screen to do, with the keys bound to it by default. */
+public enum Command {
+    MOVE_UP(true, Input.Keys.W, Input.Keys.UP),
+    MOVE_DOWN(true, Input.Keys.S, Input.Keys.DOWN),
+    MOVE_LEFT(true, Input.Keys.A, Input.Keys.LEFT),
+    MOVE_RIGHT(true, Input.Keys.D, Input.Keys.RIGHT),
+    /** Eat food while playing; pick the highlighted entry on the victory menu. */
+    CONFIRM(Input.Keys.ENTER),
+    EQUIP_WEAPON_1(Input.Keys.NUM_1),
+    EQUIP_WEAPON_2(Input.Keys.NUM_2),
+    SAVE_LOCAL(Input.Keys.F5),
+    LOAD_LOCAL(Input.Keys.F9),
+    CLOUD_UPLOAD(Input.Keys.F6),
+    CLOUD_DOWNLOAD(Input.Keys.F10),
+    CLOUD_LIST(Input.Keys.F7),
+    TOGGLE_DEBUG(Input.Keys.F3),
+    RESTART(Input.Keys.R),
+    QUIT(Input.Keys.ESCAPE);
+
+    /** Whether holding the key repeats the command. */
+    public final boolean repeatable;
+    final int[] defaultKeys;
+
+    Command(int... defaultKeys) {
+        this(false, defaultKeys);
+    }
+
+    Command(boolean repeatable, int... defaultKeys) {
+        this.repeatable = repeatable;
+        this.defaultKeys = defaultKeys;
+    }
+}
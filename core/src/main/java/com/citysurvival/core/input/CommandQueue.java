@@ -0,0 +1,39 @@
+package com.citysurvival.core.input;
+
+import java.util.ArrayDeque;
+
+/**
+ * Commands in the order their keys were pressed, filled by input events and drained by the screen each frame.
+ *
+ * The queue is bounded so mashing keys can't line up turns the player no longer expects; presses beyond the capacity
+ * are dropped.
+ */
+public class CommandQueue {
+    private final ArrayDeque<Command> queue;
+    private final int capacity;
+
+    public CommandQueue(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.queue = new ArrayDeque<>(this.capacity);
+    }
+
+    /** Appends a command; false (and nothing queued) when the queue is full. */
+    public boolean offer(Command c) {
+        if (queue.size() >= capacity) return false;
+        queue.addLast(c);
+        return true;
+    }
+
+    /** The oldest pending command, or null when there is none. */
+    public Command poll() {
+        return queue.pollFirst();
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    public void clear() {
+        queue.clear();
+    }
+}
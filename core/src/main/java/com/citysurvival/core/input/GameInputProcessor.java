@@ -0,0 +1,75 @@
+package com.citysurvival.core.input;
+
+import com.badlogic.gdx.InputAdapter;
+
+/**
+ * Turns key-down events into queued commands; unbound keys are left for other processors.
+ *
+ * Holding the key of a {@link Command#repeatable} command re-issues it after {@code repeatDelay} and then every
+ * {@code repeatInterval} seconds, driven by {@link #update(float)}. A repeat is only queued once the previous ones have
+ * been consumed, so a slow frame never builds up a backlog of held moves. The screen turns repeat off with
+ * {@link #setRepeatEnabled(boolean)} while a menu is up, where movement keys move the selection instead.
+ */
+public class GameInputProcessor extends InputAdapter {
+    private final KeyBindings bindings;
+    private final CommandQueue queue;
+    private final float repeatDelay;
+    private final float repeatInterval;
+
+    private int heldKey = -1;
+    private Command held;
+    private float heldTime;
+    private float nextRepeat;
+    private boolean repeatEnabled = true;
+
+    /** Repeat times in seconds; a non-positive interval disables key repeat. */
+    public GameInputProcessor(KeyBindings bindings, CommandQueue queue, float repeatDelay, float repeatInterval) {
+        this.bindings = bindings;
+        this.queue = queue;
+        this.repeatDelay = Math.max(0f, repeatDelay);
+        this.repeatInterval = repeatInterval;
+    }
+
+    @Override
+    public boolean keyDown(int keycode) {
+        Command c = bindings.command(keycode);
+        if (c == null) return false;
+        queue.offer(c);
+        if (c.repeatable && repeatEnabled && repeatInterval > 0f) {
+            heldKey = keycode;
+            held = c;
+            heldTime = 0f;
+            nextRepeat = repeatDelay;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean keyUp(int keycode) {
+        if (keycode != heldKey) return bindings.command(keycode) != null;
+        release();
+        return true;
+    }
+
+    /** Advances the held-key timer; call once per frame before draining the queue. */
+    public void update(float delta) {
+        if (held == null) return;
+        heldTime += delta;
+        if (heldTime < nextRepeat) return;
+        if (queue.isEmpty()) queue.offer(held);
+        // Skip repeats that fell due while the queue was busy rather than bursting them later.
+        while (nextRepeat <= heldTime) nextRepeat += repeatInterval;
+    }
+
+    /** Whether held keys repeat; turning it off also forgets the key held now. */
+    public void setRepeatEnabled(boolean enabled) {
+        repeatEnabled = enabled;
+        if (!enabled) release();
+    }
+
+    /** Forgets the held key, e.g. when the screen loses focus or the game state changes under it. */
+    public void release() {
+        heldKey = -1;
+        held = null;
+    }
+}
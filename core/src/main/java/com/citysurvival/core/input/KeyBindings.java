@@ -0,0 +1,61 @@
+package com.citysurvival.core.input;
+
+import java.util.Properties;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Key code to {@link Command} table. Starts from each command's default keys; any command can be rebound in
+ * game.properties with {@code key.<COMMAND>=<key>[,<key>...]} using libGDX key names (e.g. {@code key.MOVE_UP=W,Up}).
+ * Rebinding a command replaces all of its default keys.
+ */
+public class KeyBindings {
+    private final IntMap<Command> byKey = new IntMap<>();
+
+    public static KeyBindings defaults() {
+        KeyBindings b = new KeyBindings();
+        for (Command c : Command.values()) {
+            for (int key : c.defaultKeys) b.byKey.put(key, c);
+        }
+        return b;
+    }
+
+    /** Defaults overridden by the {@code key.*} entries of {@code p}; unknown commands or key names are logged and skipped. */
+    public static KeyBindings load(Properties p) {
+        KeyBindings b = defaults();
+        for (String name : p.stringPropertyNames()) {
+            if (!name.startsWith("key.")) continue;
+            Command c;
+            try {
+                c = Command.valueOf(name.substring(4).trim());
+            } catch (IllegalArgumentException e) {
+                Gdx.app.error("INPUT", "Unknown command in " + name);
+                continue;
+            }
+            b.unbind(c);
+            for (String keyName : p.getProperty(name).split(",")) {
+                int key = Input.Keys.valueOf(keyName.trim());
+                if (key == -1) {
+                    Gdx.app.error("INPUT", "Unknown key '" + keyName.trim() + "' in " + name);
+                    continue;
+                }
+                b.byKey.put(key, c);
+            }
+        }
+        return b;
+    }
+
+    /** The command bound to a key, or null. */
+    public Command command(int keycode) {
+        return byKey.get(keycode);
+    }
+
+    private void unbind(Command c) {
+        IntMap.Keys keys = byKey.keys();
+        while (keys.hasNext) {
+            if (byKey.get(keys.next()) == c) keys.remove();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.citysurvival.core.io;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Writes autosave snapshots into a rotating ring of local slot files (prefix_1.json .. prefix_N.json).
+ *
+ * Snapshots are serialized and written by a single background thread. Only the newest pending snapshot is kept:
+ * if another one arrives before the writer got to the previous one, the stale snapshot is dropped.
+ */
+public class AutosaveService {
+    private static final String TAG = "AUTOSAVE";
+
+    private final SaveGameService saveGame;
+    private final String filePrefix;
+    private final int slotCount;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "autosave-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicReference<SaveGameService.SaveState> pending = new AtomicReference<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final AtomicInteger dropped = new AtomicInteger();
+
+    // Only touched by the writer thread after construction.
+    private int nextSlot;
+
+    public AutosaveService(SaveGameService saveGame, String filePrefix, int slotCount) {
+        this.saveGame = saveGame;
+        this.filePrefix = filePrefix;
+        this.slotCount = Math.max(1, slotCount);
+        this.nextSlot = slotAfterNewest();
+    }
+
+    public void submit(SaveGameService.SaveState state) {
+        if (state == null) return;
+        if (pending.getAndSet(state) != null) dropped.incrementAndGet();
+        scheduleDrain();
+    }
+
+    public int droppedSnapshots() { return dropped.get(); }
+
+    /** Writes whatever is still pending and stops the writer thread. */
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(2, TimeUnit.SECONDS)) {
+                Gdx.app.error(TAG, "Autosave writer did not finish in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public FileHandle slotFile(int slot) {
+        return Gdx.files.local(filePrefix + "_" + slot + ".json");
+    }
+
+    private void scheduleDrain() {
+        if (!drainScheduled.compareAndSet(false, true)) return;
+        try {
+            writer.execute(this::drain);
+        } catch (RuntimeException e) {
+            // Writer already shut down; nothing more will be written.
+            drainScheduled.set(false);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            SaveGameService.SaveState state = pending.getAndSet(null);
+            if (state == null) {
+                drainScheduled.set(false);
+                // A snapshot may have slipped in between the getAndSet and clearing the flag.
+                if (pending.get() != null && drainScheduled.compareAndSet(false, true)) continue;
+                return;
+            }
+            write(state);
+        }
+    }
+
+    private void write(SaveGameService.SaveState state) {
+        FileHandle target = slotFile(nextSlot);
+        try {
+            FileHandle tmp = Gdx.files.local(target.path() + ".tmp");
+            tmp.writeString(saveGame.toJson(state), false);
+            // Write-then-move so a crash mid-write never leaves a truncated slot behind.
+            tmp.moveTo(target);
+            nextSlot = (nextSlot % slotCount) + 1;
+        } catch (RuntimeException e) {
+            Gdx.app.error(TAG, "Autosave to " + target.path() + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    private int slotAfterNewest() {
+        int newest = 0;
+        long newestModified = Long.MIN_VALUE;
+        for (int slot = 1; slot <= slotCount; slot++) {
+            FileHandle fh = slotFile(slot);
+            if (!fh.exists()) continue;
+            if (fh.lastModified() > newestModified) {
+                newestModified = fh.lastModified();
+                newest = slot;
+            }
+        }
+        return (newest % slotCount) + 1;
+    }
+}
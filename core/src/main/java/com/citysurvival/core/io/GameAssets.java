@@ -0,0 +1,185 @@
+package com.citysurvival.core.io;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetErrorListener;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.citysurvival.core.render.FontCache;
+
+/**
+ * Game-wide {@link AssetManager}: queues the map, sprites and audio once at startup so they load in the background
+ * while the main menu is shown.
+ *
+ * Sprites that get alpha-trimmed are loaded as plain textures when build-time {@link SpriteTrims} cover them, and
+ * otherwise as {@link Pixmap}s only; the screen then builds the texture from the same pixel data it trims, so each of
+ * those files is decoded once. Anything that isn't loaded (missing file, load error,
+ * screen shown before loading finished) is left to the callers' own synchronous fallbacks.
+ */
+public class GameAssets implements Disposable {
+    private static final String TAG = "ASSETS";
+
+    public static final String HERO_SHEET = "sprites/hero/hero.png";
+    public static final String PLAYER = "sprites/player.png";
+    public static final String ENEMY = "sprites/enemy.png";
+    public static final String ENEMY1 = "sprites/enemy/enemy1.png";
+    public static final String ENEMY2 = "sprites/enemy/enemy2.png";
+
+    // Alternatives are listed after the preferred path.
+    public static final String[] FOOD = {"sprites/food/food.png", "sprites/food.png"};
+    public static final String[] WEAPON1 = {"sprites/weapons/weapon1.png", "sprites/weapon_lv1.png"};
+    public static final String[] WEAPON2 = {"sprites/weapons/weapon2.png", "sprites/weapon_lv2.png"};
+
+    private static final String[] TRIMMED_SPRITES = {HERO_SHEET, PLAYER, ENEMY, ENEMY1, ENEMY2};
+
+    private final AssetManager manager = new AssetManager(new InternalFileHandleResolver());
+    private final TextureLoader.TextureParameter nearest = new TextureLoader.TextureParameter();
+    private final MapCache maps = new MapCache(manager);
+    private final SpriteTrims trims;
+
+    private String tmxMapPath = "maps/city1.tmx";
+    private FontCache fonts;
+
+    public GameAssets() {
+        manager.setLoader(TiledMap.class, new TmxMapLoader(new InternalFileHandleResolver()));
+        manager.setErrorListener(new AssetErrorListener() {
+            @Override
+            public void error(AssetDescriptor asset, Throwable throwable) {
+                Gdx.app.error(TAG, "Failed to load " + asset.fileName, throwable);
+            }
+        });
+        nearest.minFilter = TextureFilter.Nearest;
+        nearest.magFilter = TextureFilter.Nearest;
+        trims = SpriteTrims.load();
+    }
+
+    /** Queues everything the menu and the game need. The map goes first so the menu background shows up early. */
+    public void queueAll() {
+        boolean musicEnabled = true;
+        boolean sfxEnabled = true;
+        String[] music = {"audio/bgm.ogg"};
+        String[] sounds = {"audio/hit.wav", "audio/attack.wav", "audio/success.wav"};
+        String fontPath = "fonts/DejaVuSans.ttf";
+        try {
+            Properties p = new Properties();
+            p.load(Gdx.files.internal("config/game.properties").read());
+            tmxMapPath = p.getProperty("tmxMap", tmxMapPath);
+            musicEnabled = Boolean.parseBoolean(p.getProperty("musicEnabled", "true"));
+            sfxEnabled = Boolean.parseBoolean(p.getProperty("sfxEnabled", "true"));
+            music[0] = p.getProperty("musicPath", music[0]);
+            sounds[0] = p.getProperty("hitSfxPath", sounds[0]);
+            sounds[1] = p.getProperty("attackSfxPath", sounds[1]);
+            sounds[2] = p.getProperty("victorySfxPath", sounds[2]);
+            fontPath = p.getProperty("fontPath", fontPath);
+        } catch (IOException | GdxRuntimeException ignored) {
+        }
+
+        fonts = new FontCache(fontPath);
+
+        queue(tmxMapPath, TiledMap.class);
+
+        for (String path : TRIMMED_SPRITES) {
+            if (trims.has(path)) queueTexture(path);
+            else queue(path, Pixmap.class);
+        }
+        queueFirstExisting(FOOD);
+        queueFirstExisting(WEAPON1);
+        queueFirstExisting(WEAPON2);
+
+        if (musicEnabled) queue(music[0], Music.class);
+        if (sfxEnabled) {
+            for (String path : sounds) queue(path, Sound.class);
+        }
+    }
+
+    /** Advances loading for at most {@code millis}; true once everything queued is done. */
+    public boolean update(int millis) {
+        return manager.update(millis);
+    }
+
+    public float progress() {
+        return manager.getProgress();
+    }
+
+    public boolean isFinished() {
+        return manager.isFinished();
+    }
+
+    public String tmxMapPath() {
+        return tmxMapPath;
+    }
+
+    /** The loaded asset, or null when it wasn't queued, failed, or isn't done yet. */
+    public <T> T getIfLoaded(String path, Class<T> type) {
+        if (path == null || !manager.isLoaded(path, type)) return null;
+        return manager.get(path, type);
+    }
+
+    /** Releases a loaded asset early, e.g. pixel data that has been uploaded to a texture. */
+    public void unload(String path) {
+        if (manager.isLoaded(path)) manager.unload(path);
+    }
+
+    /** True when the asset belongs to the manager, i.e. callers must not dispose it themselves. */
+    public boolean owns(Object asset) {
+        return asset != null && manager.containsAsset(asset);
+    }
+
+    public SpriteTrims trims() {
+        return trims;
+    }
+
+    /** FreeType fonts shared by all screens; check {@link FontCache#available()} before use. */
+    public FontCache fonts() {
+        if (fonts == null) fonts = new FontCache(null);
+        return fonts;
+    }
+
+    /** Shared maps; the configured map is preloaded, others are loaded on first use. */
+    public MapCache maps() {
+        return maps;
+    }
+
+    public AssetManager manager() {
+        return manager;
+    }
+
+    @Override
+    public void dispose() {
+        maps.clear();
+        if (fonts != null) fonts.dispose();
+        manager.dispose();
+    }
+
+    private void queueFirstExisting(String[] candidates) {
+        for (String path : candidates) {
+            if (Gdx.files.internal(path).exists()) {
+                queueTexture(path);
+                return;
+            }
+        }
+    }
+
+    private void queueTexture(String path) {
+        if (!Gdx.files.internal(path).exists()) return;
+        manager.load(path, Texture.class, nearest);
+    }
+
+    private <T> void queue(String path, Class<T> type) {
+        if (path == null || path.isBlank() || !Gdx.files.internal(path).exists()) return;
+        manager.load(path, type);
+    }
+}
@@ -0,0 +1,68 @@
+package com.citysurvival.core.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.citysurvival.core.logic.CostGrid;
+import com.citysurvival.core.logic.LandmarkTable;
+import com.citysurvival.core.logic.ReachabilityMap;
+
+/**
+ * Keeps each map's {@link LandmarkTable} in a local file next to the saves, so it is only computed the first time a
+ * map (or a changed version of it) is loaded. A cached table is used only if its checksum matches the map's costs.
+ */
+public class LandmarkCache {
+    private static final String TAG = "TMX";
+
+    private final String directory;
+
+    public LandmarkCache(String directory) {
+        this.directory = directory;
+    }
+
+    public LandmarkTable loadOrCompute(String mapPath, CostGrid costs, ReachabilityMap regions, int count) {
+        FileHandle file = fileFor(mapPath);
+        LandmarkTable table = read(file, costs, count);
+        if (table != null) return table;
+
+        long start = System.nanoTime();
+        table = LandmarkTable.compute(costs, regions, count);
+        Gdx.app.log(TAG, "Computed " + table.landmarkCount() + " landmarks for " + mapPath + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        write(file, table);
+        return table;
+    }
+
+    private FileHandle fileFor(String mapPath) {
+        return Gdx.files.local(directory + "/" + mapPath.replaceAll("[^A-Za-z0-9._-]", "_") + ".alt");
+    }
+
+    private LandmarkTable read(FileHandle file, CostGrid costs, int count) {
+        if (!file.exists()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.read()))) {
+            return LandmarkTable.read(in, costs, count);
+        } catch (IOException | GdxRuntimeException e) {
+            Gdx.app.error(TAG, "Ignoring unreadable landmark cache " + file.path() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(FileHandle file, LandmarkTable table) {
+        FileHandle tmp = Gdx.files.local(file.path() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(tmp.write(false)))) {
+                table.write(out);
+            }
+            // Write-then-move so an interrupted write never leaves a truncated table behind.
+            tmp.moveTo(file);
+        } catch (IOException | GdxRuntimeException e) {
+            Gdx.app.error(TAG, "Could not write landmark cache " + file.path() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.citysurvival.core.io;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Reference-counted {@link TiledMap}s keyed by internal path, so the menu, the game and save loading all share one
+ * parsed map (and one set of tileset textures) per path.
+ *
+ * Maps preloaded by the {@link AssetManager} are handed out as-is and stay resident with it; any other map is loaded
+ * here on first use and disposed when its last reference is released. Render thread only.
+ */
+public class MapCache {
+    private static final String TAG = "TMX";
+
+    private final AssetManager manager;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public MapCache(AssetManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Returns the map for {@code path}, loading it synchronously if needed (finishing a pending background load of
+     * the same path first). Every acquire must be paired with a {@link #release}.
+     *
+     * @throws GdxRuntimeException if the map doesn't exist or fails to load
+     */
+    public TiledMap acquire(String path) {
+        Entry e = entries.get(path);
+        if (e == null) {
+            e = new Entry();
+            if (manager.contains(path)) {
+                e.map = awaitManaged(path);
+            } else {
+                if (!Gdx.files.internal(path).exists()) throw new GdxRuntimeException("Map not found: " + path);
+                e.map = new TmxMapLoader().load(path);
+                e.owned = true;
+            }
+            entries.put(path, e);
+        }
+        e.refs++;
+        return e.map;
+    }
+
+    /** Like {@link #acquire} but never blocks: null while the map is still loading in the background. */
+    public TiledMap acquireIfLoaded(String path) {
+        if (path == null) return null;
+        if (!entries.containsKey(path) && manager.contains(path) && !manager.isLoaded(path, TiledMap.class)) return null;
+        try {
+            return acquire(path);
+        } catch (GdxRuntimeException ex) {
+            Gdx.app.error(TAG, "Could not load map " + path, ex);
+            return null;
+        }
+    }
+
+    /** Drops one reference; maps loaded by the cache itself are disposed with their last reference. */
+    public void release(String path) {
+        Entry e = entries.get(path);
+        if (e == null) {
+            Gdx.app.error(TAG, "Released a map that was not acquired: " + path);
+            return;
+        }
+        if (--e.refs > 0) return;
+        entries.remove(path);
+        if (e.owned) e.map.dispose();
+    }
+
+    public int references(String path) {
+        Entry e = entries.get(path);
+        return e == null ? 0 : e.refs;
+    }
+
+    /** Disposes the maps this cache loaded itself, whether or not they are still referenced. */
+    public void clear() {
+        for (Entry e : entries.values()) {
+            if (e.owned) e.map.dispose();
+        }
+        entries.clear();
+    }
+
+    private TiledMap awaitManaged(String path) {
+        // Not finishLoadingAsset: with an error listener installed it would spin forever on a broken map.
+        while (!manager.isLoaded(path, TiledMap.class)) {
+            if (manager.update(16) && !manager.isLoaded(path, TiledMap.class)) {
+                throw new GdxRuntimeException("Failed to load map: " + path);
+            }
+        }
+        return manager.get(path, TiledMap.class);
+    }
+
+    private static final class Entry {
+        TiledMap map;
+        int refs;
+        boolean owned;
+    }
+}
@@ -1,5 +1,6 @@
 package com.citysurvival.core.io;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,6 +19,7 @@ import com.google.gson.GsonBuilder;
 
 public class SaveGameService {
     private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private final Gson compactGson = new Gson();
 
     public void saveLocal(String fileName, SaveState state) {
         FileHandle fh = Gdx.files.local(fileName);
@@ -32,6 +34,9 @@ public class SaveGameService {
 
     public String toJson(SaveState state) { return gson.toJson(state); }
 
+    /** Compact UTF-8 JSON for the wire; local files keep the pretty-printed form. */
+    public byte[] toJsonBytes(SaveState state) { return compactGson.toJson(state).getBytes(StandardCharsets.UTF_8); }
+
     public SaveState fromJson(String json) { return gson.fromJson(json, SaveState.class); }
 
     public static SaveState buildState(Player player, List<Enemy> enemies, List<WorldObject> objects, GameStats stats) {
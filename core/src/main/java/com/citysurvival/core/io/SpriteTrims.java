@@ -0,0 +1,67 @@
+package com.citysurvival.core.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Sprite trim rectangles precomputed at build time by the {@code :core:generateSpriteTrims} task, so sprites don't
+ * have to be decoded into a Pixmap and scanned pixel by pixel at startup.
+ *
+ * Entries are keyed by the source rectangle being trimmed ("path@x,y,w,h"). Lookups that miss (no metadata file,
+ * image not covered, or an image whose size no longer matches) return null and the caller scans the pixels itself.
+ */
+public class SpriteTrims {
+    public static final String FILE = "sprites/trim.properties";
+
+    private final Properties props;
+
+    private SpriteTrims(Properties props) {
+        this.props = props;
+    }
+
+    /** Reads the generated metadata; empty when it's missing (e.g. running from an IDE without the Gradle step). */
+    public static SpriteTrims load() {
+        Properties p = new Properties();
+        FileHandle fh = Gdx.files.internal(FILE);
+        if (fh.exists()) {
+            try (InputStream in = fh.read()) {
+                p.load(in);
+            } catch (IOException | GdxRuntimeException e) {
+                Gdx.app.error("ASSETS", "Could not read " + FILE + ", sprites will be trimmed at runtime", e);
+                p.clear();
+            }
+        }
+        return new SpriteTrims(p);
+    }
+
+    /** Whether trims were generated for this image at all. */
+    public boolean has(String path) {
+        return props.containsKey(path + ".size");
+    }
+
+    /** The trimmed version of {@code base}, or null if it wasn't precomputed for this texture. */
+    public TextureRegion trim(String path, Texture texture, TextureRegion base) {
+        String size = props.getProperty(path + ".size");
+        if (size == null || !size.equals(texture.getWidth() + "," + texture.getHeight())) return null;
+
+        String value = props.getProperty(path + "@" + base.getRegionX() + "," + base.getRegionY() + ","
+                + base.getRegionWidth() + "," + base.getRegionHeight());
+        if (value == null) return null;
+
+        String[] r = value.split(",");
+        if (r.length != 4) return null;
+        try {
+            return new TextureRegion(texture, Integer.parseInt(r[0]), Integer.parseInt(r[1]),
+                    Integer.parseInt(r[2]), Integer.parseInt(r[3]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
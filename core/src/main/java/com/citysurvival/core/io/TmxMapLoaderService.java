@@ -11,6 +11,8 @@ import com.badlogic.gdx.maps.tiled.TiledMap;
 import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
 import com.badlogic.gdx.maps.tiled.TmxMapLoader;
 import com.badlogic.gdx.math.Rectangle;
+import com.citysurvival.core.logic.CostGrid;
+import com.citysurvival.core.logic.ReachabilityMap;
 import com.citysurvival.core.model.Enemy;
 import com.citysurvival.core.model.Player;
 import com.citysurvival.core.model.TileType;
@@ -44,18 +46,84 @@ public class TmxMapLoaderService {
         }
     }
 
+    /**
+     * The parts of a loaded map that never change during a game: tiles, collision and where things spawn.
+     * Kept around so a restart only has to rebuild the mutable world from {@link #spawns}.
+     */
+    public static class MapData {
+        public final TiledMap tiledMap;
+        public final TileType[][] collision;
+        public final int tileSize;
+        public final List<Spawn> spawns;
+        public final ReachabilityMap reachability;
+        public final CostGrid costs;
+
+        public MapData(TiledMap tiledMap, TileType[][] collision, int tileSize, List<Spawn> spawns, ReachabilityMap reachability,
+                CostGrid costs) {
+            this.tiledMap = tiledMap;
+            this.collision = collision;
+            this.tileSize = tileSize;
+            this.spawns = List.copyOf(spawns);
+            this.reachability = reachability;
+            this.costs = costs;
+        }
+    }
+
+    /** One entry of the Spawns layer: the lower-cased object name and its tile position. */
+    public static final class Spawn {
+        public final String name;
+        public final int x;
+        public final int y;
+
+        public Spawn(String name, int x, int y) {
+            this.name = name;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
     public LoadedTmx load(String tmxInternalPath, int tileSize) {
-        TiledMap map = new TmxMapLoader().load(tmxInternalPath);
+        return load(new TmxMapLoader().load(tmxInternalPath), tileSize);
+    }
+
+    /** Builds world state from an already loaded map (e.g. one owned by the asset manager). */
+    public LoadedTmx load(TiledMap map, int tileSize) {
+        return spawn(parse(map, tileSize));
+    }
+
+    /** Fresh player, enemies and objects from the spawn table; cheap enough to call on every restart. */
+    public LoadedTmx spawn(MapData data) {
+        Player player = null;
+        List<Enemy> enemies = new ArrayList<>();
+        List<WorldObject> objects = new ArrayList<>();
 
+        for (Spawn sp : data.spawns) {
+            int tx = sp.x;
+            int ty = sp.y;
+            switch (sp.name) {
+                case "player" -> player = new Player(tx, ty, 10);
+                case "enemy", "enemy1" -> enemies.add(new Enemy(tx, ty, new Weapon("Enemy 1", 1), 1));
+                case "enemy2" -> enemies.add(new Enemy(tx, ty, new Weapon("Enemy 2", 2), 2));
+                case "food" -> objects.add(new WorldObject(tx, ty, new Food("Food", 1)));
+                case "weapon1" -> objects.add(new WorldObject(tx, ty, new Weapon("Weapon L1", 1)));
+                case "weapon2" -> objects.add(new WorldObject(tx, ty, new Weapon("Weapon L2", 2)));
+                default -> {}
+            }
+        }
+
+        return new LoadedTmx(data.tiledMap, data.collision, player, enemies, objects);
+    }
+
+    /** Reads the spawn table and derives collision; the returned data is shared by every game on this map. */
+    public MapData parse(TiledMap map, int tileSize) {
         Integer mapTileWidth = map.getProperties().get("tilewidth", Integer.class);
         int mapTileSize = (mapTileWidth != null && mapTileWidth > 0) ? mapTileWidth : tileSize;
 
         int width = map.getProperties().get("width", Integer.class);
         int height = map.getProperties().get("height", Integer.class);
 
-        Player player = null;
-        List<Enemy> enemies = new ArrayList<>();
-        List<WorldObject> objects = new ArrayList<>();
+        List<Spawn> spawnTable = new ArrayList<>();
+        Spawn player = null;
 
         MapLayer spawns = map.getLayers().get("Spawns");
         if (spawns == null) spawns = map.getLayers().get("Spawn");
@@ -71,20 +139,17 @@ public class TmxMapLoaderService {
             String name = obj.getName() == null ? "" : obj.getName().trim().toLowerCase();
 
             switch (name) {
-                case "player" -> player = new Player(tx, ty, 10);
-                case "enemy", "enemy1" -> enemies.add(new Enemy(tx, ty, new Weapon("Enemy 1", 1), 1));
-                case "enemy2" -> enemies.add(new Enemy(tx, ty, new Weapon("Enemy 2", 2), 2));
-                case "food" -> objects.add(new WorldObject(tx, ty, new Food("Food", 1)));
-                case "weapon1" -> objects.add(new WorldObject(tx, ty, new Weapon("Weapon L1", 1)));
-                case "weapon2" -> objects.add(new WorldObject(tx, ty, new Weapon("Weapon L2", 2)));
+                case "player", "enemy", "enemy1", "enemy2", "food", "weapon1", "weapon2" -> {
+                    Spawn sp = new Spawn(name, tx, ty);
+                    spawnTable.add(sp);
+                    if (name.equals("player")) player = sp;
+                }
                 default -> {}
             }
         }
 
         if (player == null) throw new IllegalStateException("Spawns layer must contain an object named 'player'");
 
-        TileType[][] collision = new TileType[width][height];
-
         TiledMapTileLayer collisionTl = findTileLayer(map, "Collision", "collision", "Collisions", "collisions");
         TiledMapTileLayer buildingsTl = findTileLayer(map, "Buildings", "buildings");
 
@@ -112,18 +177,13 @@ public class TmxMapLoaderService {
             }
         }
 
-        boolean anyRaw = rawBlockedCount > 0;
-        boolean allRaw = rawBlockedCount == width * height;
-        boolean spawnMarkedBlocked = anyRaw && player.x() >= 0 && player.y() >= 0 && player.x() < width && player.y() < height && rawBlocked[player.x()][player.y()];
-        boolean invert = spawnMarkedBlocked && !allRaw;
-
+        TileType[][] collision = collisionFromMask(rawBlocked, rawBlockedCount, player.x, player.y);
+        boolean invert = player.x >= 0 && player.y >= 0 && player.x < width && player.y < height
+                && rawBlocked[player.x][player.y] && collision[player.x][player.y].walkable;
         int finalBlockedCount = 0;
         for (int x = 0; x < width; x++) {
             for (int y = 0; y < height; y++) {
-                boolean blocked = rawBlocked[x][y];
-                if (invert) blocked = !blocked;
-                collision[x][y] = blocked ? TileType.WALL : TileType.FLOOR;
-                if (blocked) finalBlockedCount++;
+                if (!collision[x][y].walkable) finalBlockedCount++;
             }
         }
 
@@ -136,10 +196,107 @@ public class TmxMapLoaderService {
                             + ", rawBlocked=" + rawBlockedCount + "/" + (width * height)
                             + ", inverted=" + invert
                             + ", finalBlocked=" + finalBlockedCount + "/" + (width * height)
-                            + ", playerSpawnTile=" + player.x() + "," + player.y()
+                            + ", playerSpawnTile=" + player.x + "," + player.y
                             + ", tileSizeUsed=" + mapTileSize);
         }
 
-        return new LoadedTmx(map, collision, player, enemies, objects);
+        ReachabilityMap reachability = new ReachabilityMap(collision);
+        warnUnreachableSpawns(spawnTable, player, reachability);
+
+        CostGrid costs = readCosts(map, collision);
+
+        return new MapData(map, collision, mapTileSize, spawnTable, reachability, costs);
+    }
+
+    /**
+     * Movement costs from the "cost" property of the tiles (set per tile in the tileset), a multiple of plain ground:
+     * roads 0.5, rubble 2. Where several layers have a costed tile on the same cell the highest cost wins; cells
+     * without one cost {@link CostGrid#DEFAULT_COST} and walls stay impassable.
+     */
+    private static CostGrid readCosts(TiledMap map, TileType[][] collision) {
+        CostGrid costs = new CostGrid(collision);
+        boolean[] costed = new boolean[costs.width() * costs.height()];
+        for (MapLayer layer : map.getLayers()) {
+            if (!(layer instanceof TiledMapTileLayer tl)) continue;
+            int w = Math.min(tl.getWidth(), costs.width());
+            int h = Math.min(tl.getHeight(), costs.height());
+            for (int x = 0; x < w; x++) {
+                for (int y = 0; y < h; y++) {
+                    TiledMapTileLayer.Cell cell = tl.getCell(x, y);
+                    if (cell == null || cell.getTile() == null || !collision[x][y].walkable) continue;
+                    int c = tileCost(cell.getTile().getProperties().get("cost"));
+                    int t = x * costs.height() + y;
+                    if (c <= 0 || (costed[t] && c <= costs.cost(x, y))) continue;
+                    costed[t] = true;
+                    costs.setCost(x, y, c);
+                }
+            }
+        }
+        int weighted = 0;
+        for (int t = 0; t < costed.length; t++) {
+            if (costs.costAt(t) != 0 && costs.costAt(t) != CostGrid.DEFAULT_COST) weighted++;
+        }
+        if (weighted > 0) {
+            Gdx.app.log("TMX", "Terrain costs: " + weighted + " weighted tile(s), costs " + costs.minCost() + ".."
+                    + costs.maxCost() + " (ground " + CostGrid.DEFAULT_COST + ")");
+        }
+        return costs;
+    }
+
+    // Grid cost of a "cost" property, or 0 when the tile has none.
+    private static int tileCost(Object value) {
+        double multiple = 0;
+        if (value instanceof Number n) multiple = n.doubleValue();
+        if (value instanceof String s) {
+            try {
+                multiple = Double.parseDouble(s.trim());
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        if (!(multiple > 0)) return 0;
+        return (int) Math.max(1, Math.min(CostGrid.MAX_COST, Math.round(multiple * CostGrid.DEFAULT_COST)));
+    }
+
+    /**
+     * Collision from the mask of tiles that have a cell on a collision/buildings layer. Some maps paint the walkable
+     * area instead of the walls; that's detected by the player spawn sitting on a marked tile, and the mask is then
+     * inverted (unless everything is marked).
+     */
+    public static TileType[][] collisionFromMask(boolean[][] rawBlocked, int rawBlockedCount, int spawnX, int spawnY) {
+        int width = rawBlocked.length;
+        int height = width == 0 ? 0 : rawBlocked[0].length;
+        boolean anyRaw = rawBlockedCount > 0;
+        boolean allRaw = rawBlockedCount == width * height;
+        boolean spawnMarkedBlocked = anyRaw && spawnX >= 0 && spawnY >= 0 && spawnX < width && spawnY < height && rawBlocked[spawnX][spawnY];
+        boolean invert = spawnMarkedBlocked && !allRaw;
+
+        TileType[][] collision = new TileType[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                boolean blocked = rawBlocked[x][y];
+                if (invert) blocked = !blocked;
+                collision[x][y] = blocked ? TileType.WALL : TileType.FLOOR;
+            }
+        }
+        return collision;
+    }
+
+    private static void warnUnreachableSpawns(List<Spawn> spawnTable, Spawn player, ReachabilityMap reachability) {
+        int playerRegion = reachability.region(player.x, player.y);
+        if (playerRegion == ReachabilityMap.BLOCKED) {
+            Gdx.app.log("TMX", "Warning: player spawn " + player.x + "," + player.y + " is on a blocked tile");
+            return;
+        }
+        int unreachable = 0;
+        for (Spawn sp : spawnTable) {
+            if (sp == player) continue;
+            int r = reachability.region(sp.x, sp.y);
+            if (r == playerRegion) continue;
+            unreachable++;
+            Gdx.app.log("TMX", "Warning: spawn '" + sp.name + "' at " + sp.x + "," + sp.y
+                    + (r == ReachabilityMap.BLOCKED ? " is on a blocked tile" : " can't be reached from the player spawn"));
+        }
+        Gdx.app.log("TMX", "Reachability: " + reachability.labelCount() + " walkable region(s), "
+                + unreachable + " unreachable spawn(s)");
     }
 }
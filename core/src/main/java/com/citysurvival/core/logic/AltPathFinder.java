@@ -0,0 +1,182 @@
+package com.citysurvival.core.logic;
+
+/**
+ * A* on the {@link CostGrid} guided by a {@link LandmarkTable}: the heuristic is the landmark lower bound to the
+ * nearest target, which knows about walls, so long searches around buildings expand a narrow corridor instead of the
+ * whole area a BFS or Dial floods. Without landmarks for the current map it falls back to the Manhattan distance
+ * times the cheapest tile cost.
+ * Paths are shortest either way; on an unweighted map they have the same length as {@link BfsPathFinder}'s.
+ */
+public class AltPathFinder implements PathFinder {
+    private CostGrid costs;
+    private LandmarkTable landmarks;
+
+    private int tiles = -1;
+    private int[] gScore;
+    private int[] parent;
+    private int[] openStamp;
+    private int[] closedStamp;
+    private int[] targetStamp;
+    private final TileHeap open = new TileHeap();
+    private int stamp = 0;
+    private int lastLength = -1;
+    private long expanded = 0;
+    private long scanned = 0;
+
+    // Current query.
+    private CostGrid grid;
+    private LandmarkTable table;
+    private int height;
+    private Passable passable;
+    private int[] targets;
+    private int targetCount;
+    // Landmark distances of the targets (target * landmarks + landmark) and of the tile being scored.
+    private int[] targetDist = new int[0];
+    private int[] tileDist = new int[0];
+    private int landmarkCount;
+
+    @Override
+    public void setCosts(CostGrid costs) {
+        this.costs = costs;
+    }
+
+    @Override
+    public void setLandmarks(LandmarkTable landmarks) {
+        this.landmarks = landmarks;
+    }
+
+    @Override
+    public int firstStep(int width, int height, Passable passable, int start, int[] targets, int targetCount) {
+        ensureScratch(width * height);
+        this.grid = costs != null && costs.width() == width && costs.height() == height ? costs : null;
+        this.table = grid != null && landmarks != null && landmarks.covers(grid) ? landmarks : null;
+        this.height = height;
+        this.passable = passable;
+        this.targets = targets;
+        this.targetCount = targetCount;
+        if (table != null) loadTargetDistances();
+        int s = ++stamp;
+        for (int i = 0; i < targetCount; i++) targetStamp[targets[i]] = s;
+        if (targetStamp[start] == s) return -1;
+
+        open.clear();
+        gScore[start] = 0;
+        parent[start] = -1;
+        openStamp[start] = s;
+        open.push(heuristic(start), start);
+
+        int found = -1;
+        while (!open.isEmpty()) {
+            int cur = open.pop();
+            if (closedStamp[cur] == s) continue;
+            closedStamp[cur] = s;
+            expanded++;
+            if (targetStamp[cur] == s) {
+                found = cur;
+                break;
+            }
+            int cx = cur / height;
+            int cy = cur % height;
+            // Same neighbour order as Direction.values(): up, down, left, right.
+            if (cy + 1 < height) relax(cur, cur + 1, cx, cy + 1, s);
+            if (cy > 0) relax(cur, cur - 1, cx, cy - 1, s);
+            if (cx > 0) relax(cur, cur - height, cx - 1, cy, s);
+            if (cx + 1 < width) relax(cur, cur + height, cx + 1, cy, s);
+        }
+        this.grid = null;
+        this.table = null;
+        this.passable = null;
+        this.targets = null;
+        if (found == -1) return -1;
+
+        lastLength = gScore[found];
+        int cur = found;
+        while (parent[cur] != start) cur = parent[cur];
+        return cur;
+    }
+
+    private void relax(int from, int n, int x, int y, int s) {
+        if (closedStamp[n] == s) return;
+        int cost = grid == null ? 1 : grid.costAt(n);
+        if (cost == 0) return;
+        int g = gScore[from] + cost;
+        if (openStamp[n] == s && gScore[n] <= g) return;
+        scanned++;
+        if (!passable.at(x, y)) {
+            // Blocked for the rest of the query; don't ask again from its other neighbours.
+            closedStamp[n] = s;
+            return;
+        }
+        openStamp[n] = s;
+        gScore[n] = g;
+        parent[n] = from;
+        open.push(g + heuristic(n), n);
+    }
+
+    private void loadTargetDistances() {
+        int k = table.landmarkCount();
+        landmarkCount = k;
+        if (targetDist.length < targetCount * k) targetDist = new int[targetCount * k];
+        if (tileDist.length < k) tileDist = new int[k];
+        for (int i = 0; i < targetCount; i++) {
+            for (int l = 0; l < k; l++) targetDist[i * k + l] = table.distance(l, targets[i]);
+        }
+    }
+
+    // Same bound as LandmarkTable.lowerBound, minimised over the targets, reading each table once per tile.
+    private int heuristic(int t) {
+        int tx = t / height;
+        int ty = t % height;
+        int k = table == null ? 0 : landmarkCount;
+        for (int l = 0; l < k; l++) tileDist[l] = table.distance(l, t);
+        int tileCost = k == 0 ? 0 : grid.costAt(t);
+        int step = grid == null ? 1 : grid.minCost();
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < targetCount; i++) {
+            int d = (Math.abs(targets[i] / height - tx) + Math.abs(targets[i] % height - ty)) * step;
+            if (k > 0) {
+                int extra = grid.costAt(targets[i]) - tileCost;
+                for (int l = 0, base = i * k; l < k; l++) {
+                    int a = tileDist[l];
+                    int b = targetDist[base + l];
+                    if (a == LandmarkTable.UNKNOWN || b == LandmarkTable.UNKNOWN) continue;
+                    int bound = Math.max(b - a, a - b + extra);
+                    if (bound > d) d = bound;
+                }
+            }
+            if (d < best) best = d;
+        }
+        return best;
+    }
+
+    private void ensureScratch(int n) {
+        if (n == tiles) return;
+        tiles = n;
+        gScore = new int[n];
+        parent = new int[n];
+        openStamp = new int[n];
+        closedStamp = new int[n];
+        targetStamp = new int[n];
+        stamp = 0;
+    }
+
+    @Override
+    public int lastPathLength() {
+        return lastLength;
+    }
+
+    @Override
+    public long expanded() {
+        return expanded;
+    }
+
+    @Override
+    public long scanned() {
+        return scanned;
+    }
+
+    @Override
+    public String name() {
+        return "alt";
+    }
+}
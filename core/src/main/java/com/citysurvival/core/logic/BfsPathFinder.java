@@ -0,0 +1,98 @@
+package com.citysurvival.core.logic;
+
+/** Breadth-first search; expands every tile closer than the nearest target. */
+public class BfsPathFinder implements PathFinder {
+    private int tiles = -1;
+    private int[] visitStamp;
+    private int[] prev;
+    private int[] dist;
+    private int[] queue;
+    private int stamp = 0;
+    private int lastLength = -1;
+    private long expanded = 0;
+    private long scanned = 0;
+
+    @Override
+    public int firstStep(int width, int height, Passable passable, int start, int[] targets, int targetCount) {
+        ensureScratch(width * height);
+        int s = ++stamp;
+        int head = 0;
+        int tail = 0;
+        visitStamp[start] = s;
+        prev[start] = -1;
+        dist[start] = 0;
+        queue[tail++] = start;
+
+        int found = -1;
+        while (head < tail) {
+            int cur = queue[head++];
+            expanded++;
+            if (isTarget(cur, targets, targetCount)) {
+                found = cur;
+                break;
+            }
+
+            int cx = cur / height;
+            int cy = cur % height;
+            // Same neighbour order as Direction.values(): up, down, left, right.
+            if (cy + 1 < height) tail = visit(cur, cur + 1, cx, cy + 1, passable, s, tail);
+            if (cy > 0) tail = visit(cur, cur - 1, cx, cy - 1, passable, s, tail);
+            if (cx > 0) tail = visit(cur, cur - height, cx - 1, cy, passable, s, tail);
+            if (cx + 1 < width) tail = visit(cur, cur + height, cx + 1, cy, passable, s, tail);
+        }
+        if (found == -1 || found == start) return -1;
+
+        lastLength = dist[found];
+        int cur = found;
+        while (prev[cur] != start) cur = prev[cur];
+        return cur;
+    }
+
+    private int visit(int from, int n, int x, int y, Passable passable, int s, int tail) {
+        if (visitStamp[n] == s) return tail;
+        scanned++;
+        if (!passable.at(x, y)) return tail;
+        visitStamp[n] = s;
+        prev[n] = from;
+        dist[n] = dist[from] + 1;
+        queue[tail] = n;
+        return tail + 1;
+    }
+
+    static boolean isTarget(int t, int[] targets, int count) {
+        for (int i = 0; i < count; i++) {
+            if (targets[i] == t) return true;
+        }
+        return false;
+    }
+
+    private void ensureScratch(int n) {
+        if (n == tiles) return;
+        tiles = n;
+        visitStamp = new int[n];
+        prev = new int[n];
+        dist = new int[n];
+        queue = new int[n];
+        stamp = 0;
+    }
+
+    @Override
+    public int lastPathLength() {
+        return lastLength;
+    }
+
+    @Override
+    public long expanded() {
+        return expanded;
+    }
+
+    @Override
+    public long scanned() {
+        return scanned;
+    }
+
+    @Override
+    public String name() {
+        return "bfs";
+    }
+}
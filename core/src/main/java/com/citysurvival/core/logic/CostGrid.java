@@ -0,0 +1,69 @@
+package com.citysurvival.core.logic;
+
+import com.citysurvival.core.model.TileType;
+
+/**
+ * Movement cost of entering each tile, one byte per tile ({@code x * height + y}). 0 means impassable; plain ground costs
+ * {@link #DEFAULT_COST}, so cheaper terrain such as roads can go down to 1 and rougher terrain up to {@link #MAX_COST}.
+ * Only weighted path finders use it; movement itself is still one tile per turn, costs just make some routes more or
+ * less attractive.
+ */
+public class CostGrid {
+    public static final int DEFAULT_COST = 2;
+    public static final int MAX_COST = 100;
+
+    private final int width;
+    private final int height;
+    private final byte[] costs;
+    private int minCost = DEFAULT_COST;
+    private int maxCost = DEFAULT_COST;
+
+    /** All walkable tiles of the collision grid at {@link #DEFAULT_COST}, walls impassable. */
+    public CostGrid(TileType[][] collision) {
+        this.width = collision.length;
+        this.height = width == 0 ? 0 : collision[0].length;
+        this.costs = new byte[width * height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) costs[x * height + y] = (byte) (collision[x][y].walkable ? DEFAULT_COST : 0);
+        }
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /** Cost of entering the tile; 0 for impassable or out-of-bounds tiles. */
+    public int cost(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return 0;
+        return costs[x * height + y];
+    }
+
+    /** Cost by tile index; the index must be in range. */
+    public int costAt(int tile) {
+        return costs[tile];
+    }
+
+    /** Sets a walkable tile's cost, clamped to 1..{@link #MAX_COST}; impassable tiles stay impassable. */
+    public void setCost(int x, int y, int cost) {
+        int t = x * height + y;
+        if (costs[t] == 0) return;
+        int c = Math.max(1, Math.min(MAX_COST, cost));
+        costs[t] = (byte) c;
+        if (c < minCost) minCost = c;
+        if (c > maxCost) maxCost = c;
+    }
+
+    /** Lowest cost set so far ({@link #DEFAULT_COST} on an unweighted map); every step costs at least this much. */
+    public int minCost() {
+        return minCost;
+    }
+
+    /** Highest cost set so far ({@link #DEFAULT_COST} on an unweighted map). */
+    public int maxCost() {
+        return maxCost;
+    }
+}
@@ -1,8 +1,6 @@
 package com.citysurvival.core.logic;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -11,142 +9,439 @@ import com.citysurvival.core.model.Enemy;
 import com.citysurvival.core.model.TileType;
 
 public class EnemyAISystem {
-    private final Random rng = new Random();
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // Side of the square buckets of the enemy index, in tiles.
+    private static final int BUCKET_TILES = 16;
+
+    private final Random rng;
+
+    // Enemies chase the player when it is this close (Manhattan tiles; walking cost too when landmarks are set).
+    private int followRange = 6;
+
+    // Level of detail, in Manhattan tiles from the player: enemies within activeRadius act every turn, those within
+    // sleepRadius take a random step every farUpdateEvery turns (staggered), and the rest sleep.
+    private int activeRadius = Integer.MAX_VALUE;
+    private int sleepRadius = Integer.MAX_VALUE;
+    private int farUpdateEvery = 1;
+    private int turnNumber = 0;
+
+    private ReachabilityMap reachability;
+    private PathFinder pathFinder = new BfsPathFinder();
+    private CostGrid costs;
+    private LandmarkTable landmarks;
+
+    // Per-tile occupancy of all enemies at their committed positions, kept up to date by Turn.commit. A turn's
+    // planned moves go into occDelta, valid only where occStamp matches its generation, so nothing has to be cleared
+    // between turns (or when a turn is abandoned).
+    private int scratchTiles = -1;
+    private int[] occupied;
+    private int[] occDelta;
+    private int[] occStamp;
+    private int occGen = 0;
+
+    // Enemy list indices bucketed by position, so a turn only looks at the buckets within sleepRadius of the player.
+    // Rebuilt when the list, its size or the grid changes (or after enemiesChanged); moves by commit update it.
+    private List<Enemy> indexedEnemies;
+    private int indexedSize = -1;
+    private TileType[][] indexedCollision;
+    private boolean indexStale = true;
+    private int bucketCols;
+    private int bucketRows;
+    private int[][] buckets = new int[0][];
+    private int[] bucketSize = new int[0];
+
+    // Per-turn scratch, grown as needed and shared by successive turns.
+    private int[] candidates = new int[0];
+    private int[] awakeIds = new int[0];
+    private boolean[] awakeChases = new boolean[0];
+    private int[] awakePlanX = new int[0];
+    private int[] awakePlanY = new int[0];
+    private final int[] targetTiles = new int[4];
+
+    public EnemyAISystem() {
+        this(new Random());
+    }
+
+    /** Random source for the random steps; a seeded one makes turns reproducible. */
+    public EnemyAISystem(Random rng) {
+        this.rng = rng;
+    }
+
+    /**
+     * Enables distance-based level of detail. {@code activeRadius} is raised to at least the chase range; a
+     * {@code farUpdateEvery} of 1 moves mid-range enemies every turn.
+     */
+    public void setLevelOfDetail(int activeRadius, int sleepRadius, int farUpdateEvery) {
+        this.activeRadius = Math.max(followRange, activeRadius);
+        this.sleepRadius = Math.max(this.activeRadius, sleepRadius);
+        this.farUpdateEvery = Math.max(1, farUpdateEvery);
+    }
+
+    /** Chase range in tiles; the level-of-detail radii are raised to cover it. */
+    public void setFollowRange(int followRange) {
+        this.followRange = Math.max(0, followRange);
+        activeRadius = Math.max(activeRadius, this.followRange);
+        sleepRadius = Math.max(sleepRadius, activeRadius);
+    }
+
+    /** Regions of the current collision grid, used to skip chases that can't succeed; ignored for other grids. */
+    public void setReachability(ReachabilityMap reachability) {
+        this.reachability = reachability;
+    }
+
+    /** Search used for chasing enemies; breadth-first by default. */
+    public void setPathFinder(PathFinder pathFinder) {
+        this.pathFinder = pathFinder;
+        pathFinder.setCosts(costs);
+        pathFinder.setLandmarks(landmarks);
+    }
+
+    /** Terrain costs of the current map, for weighted path finders. */
+    public void setCosts(CostGrid costs) {
+        this.costs = costs;
+        pathFinder.setCosts(costs);
+    }
+
+    /**
+     * Landmark distances for the current cost grid, or null. With them an enemy only chases when the player may be
+     * within the walking cost of {@code followRange} plain-ground tiles, not just in a straight line (so not through a building), and the
+     * path finder can use them as its heuristic.
+     */
+    public void setLandmarks(LandmarkTable landmarks) {
+        this.landmarks = landmarks;
+        pathFinder.setLandmarks(landmarks);
+    }
+
+    public PathFinder pathFinder() {
+        return pathFinder;
+    }
+
+    /**
+     * Call after adding, removing or moving enemies outside of a turn; they are re-indexed when the next turn begins.
+     * Replacing the list or changing its size is noticed without it.
+     */
+    public void enemiesChanged() {
+        indexStale = true;
+    }
 
     public void moveEnemiesAfterPlayer(TileType[][] collision, List<Enemy> enemies) {
         for (Enemy e : enemies) {
             tryMoveRandom(collision, enemies, e);
         }
+        indexStale = true;
     }
 
     public void moveEnemiesAfterPlayer(TileType[][] collision, List<Enemy> enemies, int playerX, int playerY) {
-        final int followRange = 6;
+        Turn turn = beginTurn(collision, enemies, playerX, playerY);
+        turn.step(Long.MAX_VALUE);
+        turn.commit();
+    }
 
-        for (Enemy e : enemies) {
-            int dist = Math.abs(playerX - e.x()) + Math.abs(playerY - e.y());
+    /**
+     * Starts an enemy phase that can be advanced over several frames with {@link Turn#step(long)}. Only one turn can
+     * be in progress; beginning another invalidates the previous one.
+     */
+    public Turn beginTurn(TileType[][] collision, List<Enemy> enemies, int playerX, int playerY) {
+        return new Turn(collision, enemies, playerX, playerY);
+    }
 
-            if (dist <= followRange) {
-                Direction next = findNextStepTowardPlayer(collision, enemies, e, playerX, playerY);
-                if (next != null && tryMove(collision, enemies, e, next, playerX, playerY)) {
+    /**
+     * One enemy phase, computed incrementally against planned positions and applied to the enemies all at once by
+     * {@link #commit()}, so the world never shows a half-moved turn. Enemies move in list order and each sees the
+     * planned moves of the ones before it, exactly as when the whole phase runs in one go.
+     *
+     * Setting up a turn only visits the enemies in the index buckets within {@code sleepRadius} of the player, and all
+     * the per-enemy work (path search, move checks) is only done for the enemies that are awake this turn. Sleeping
+     * enemies cost nothing until the player comes close; only the turn object itself is allocated.
+     *
+     * The enemy list and the player must not change between {@link EnemyAISystem#beginTurn} and {@link #commit()}.
+     */
+    public final class Turn {
+        private final TileType[][] collision;
+        private final List<Enemy> enemies;
+        private final int playerX;
+        private final int playerY;
+        private final int height;
+        private final ReachabilityMap regions;
+        private final LandmarkTable aggro;
+        private final int gen;
+        // Awake enemies (indices into enemies) with their planned positions, in list order.
+        private final int[] awake;
+        private final boolean[] chases;
+        private final int[] planX;
+        private final int[] planY;
+        private final int awakeCount;
+        private final PathFinder.Passable passable = this::passableFor;
+        private int planning;
+        private int next = 0;
+
+        private Turn(TileType[][] collision, List<Enemy> enemies, int playerX, int playerY) {
+            this.collision = collision;
+            this.enemies = enemies;
+            this.playerX = playerX;
+            this.playerY = playerY;
+            this.height = collision[0].length;
+            this.regions = reachability != null && reachability.covers(collision) ? reachability : null;
+            this.aggro = landmarks != null && costs != null && landmarks.covers(costs) && costs.width() == collision.length
+                    && costs.height() == height ? landmarks : null;
+            ensureScratch(collision.length * height);
+            ensureIndex(collision, enemies);
+            this.gen = ++occGen;
+            int turn = turnNumber++;
+
+            // Candidates in list order, so enemies still move in list order.
+            int n = collectNear(playerX, playerY);
+            Arrays.sort(candidates, 0, n);
+            if (awakeIds.length < n) {
+                awakeIds = new int[n];
+                awakeChases = new boolean[n];
+                awakePlanX = new int[n];
+                awakePlanY = new int[n];
+            }
+            int count = 0;
+            for (int c = 0; c < n; c++) {
+                int i = candidates[c];
+                Enemy e = enemies.get(i);
+                int dist = Math.abs(playerX - e.x()) + Math.abs(playerY - e.y());
+                if (dist <= activeRadius) {
+                    awakeChases[count] = dist <= followRange && mayReachWithinFollowRange(e);
+                } else if (dist <= sleepRadius && (turn + i) % farUpdateEvery == 0) {
+                    awakeChases[count] = false;
+                } else {
                     continue;
                 }
-                tryMoveRandom(collision, enemies, e, playerX, playerY);
-            } else {
-                tryMoveRandom(collision, enemies, e, playerX, playerY);
+                awakeIds[count] = i;
+                awakePlanX[count] = e.x();
+                awakePlanY[count] = e.y();
+                count++;
             }
+            this.awake = awakeIds;
+            this.chases = awakeChases;
+            this.planX = awakePlanX;
+            this.planY = awakePlanY;
+            this.awakeCount = count;
         }
-    }
 
-    private boolean tryMove(TileType[][] collision, List<Enemy> enemies, Enemy e, Direction dir, int playerX, int playerY) {
-        int nx = e.x() + dir.dx;
-        int ny = e.y() + dir.dy;
+        // Landmark lower bound on the walking cost to the player; without landmarks every enemy in range qualifies.
+        private boolean mayReachWithinFollowRange(Enemy e) {
+            if (aggro == null || !inBounds(collision, e.x(), e.y())) return true;
+            if (!inBounds(collision, playerX, playerY)) return true;
+            return aggro.lowerBound(e.x() * height + e.y(), playerX * height + playerY) <= followRange * CostGrid.DEFAULT_COST;
+        }
 
-        if (nx == playerX && ny == playerY) return false;
+        /**
+         * Plans enemies until all are done or {@code deadlineNanos} ({@link System#nanoTime()}) has passed; at least
+         * one enemy is planned per call. Returns true when the phase is complete.
+         */
+        public boolean step(long deadlineNanos) {
+            if (gen != occGen) throw new IllegalStateException("Enemy turn was superseded by a newer one");
+            while (next < awakeCount) {
+                planEnemy(next++);
+                if (System.nanoTime() >= deadlineNanos) break;
+            }
+            return isDone();
+        }
 
-        if (!inBounds(collision, nx, ny)) return false;
-        if (!collision[nx][ny].walkable) return false;
-        if (occupiedByEnemy(enemies, nx, ny, e)) return false;
+        public boolean isDone() {
+            return next >= awakeCount;
+        }
 
-        e.setPos(nx, ny);
-        return true;
-    }
+        /** Number of enemies that act this turn; the others are asleep. */
+        public int awakeCount() {
+            return awakeCount;
+        }
 
-    private void tryMoveRandom(TileType[][] collision, List<Enemy> enemies, Enemy e) {
-        Direction dir = Direction.values()[rng.nextInt(Direction.values().length)];
-        tryMove(collision, enemies, e, dir);
-    }
+        /** Moves every awake enemy to its planned tile. Call once, after {@link #step} returned true. */
+        public void commit() {
+            if (gen != occGen) throw new IllegalStateException("Enemy turn was superseded by a newer one");
+            if (!isDone()) throw new IllegalStateException("Enemy turn not finished");
+            for (int k = 0; k < awakeCount; k++) {
+                Enemy e = enemies.get(awake[k]);
+                if (e.x() == planX[k] && e.y() == planY[k]) continue;
+                moveIndexed(awake[k], e.x(), e.y(), planX[k], planY[k]);
+                e.setPos(planX[k], planY[k]);
+            }
+            // Planned moves are in the committed occupancy now; a second commit must not apply them again.
+            occGen++;
+        }
 
-    private void tryMoveRandom(TileType[][] collision, List<Enemy> enemies, Enemy e, int playerX, int playerY) {
-        Direction dir = Direction.values()[rng.nextInt(Direction.values().length)];
-        tryMove(collision, enemies, e, dir, playerX, playerY);
-    }
+        private void planEnemy(int k) {
+            if (chases[k]) {
+                Direction d = nextStepTowardPlayer(k);
+                if (d != null && tryMove(k, d)) return;
+            }
+            tryMove(k, DIRECTIONS[rng.nextInt(DIRECTIONS.length)]);
+        }
 
-    private Direction findNextStepTowardPlayer(TileType[][] collision, List<Enemy> enemies, Enemy enemy, int playerX, int playerY) {
-        int width = collision.length;
-        int height = collision[0].length;
+        private boolean tryMove(int k, Direction dir) {
+            int nx = planX[k] + dir.dx;
+            int ny = planY[k] + dir.dy;
 
-        List<int[]> targets = new ArrayList<>(4);
-        for (Direction d : Direction.values()) {
-            int tx = playerX + d.dx;
-            int ty = playerY + d.dy;
-            if (!inBounds(collision, tx, ty)) continue;
-            if (!collision[tx][ty].walkable) continue;
-            if (occupiedByEnemy(enemies, tx, ty, enemy)) continue;
-            targets.add(new int[] { tx, ty });
-        }
-        if (targets.isEmpty()) return null;
-
-        boolean[][] visited = new boolean[width][height];
-        int[][] prevX = new int[width][height];
-        int[][] prevY = new int[width][height];
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                prevX[x][y] = -1;
-                prevY[x][y] = -1;
-            }
+            if (nx == playerX && ny == playerY) return false;
+            if (!inBounds(collision, nx, ny)) return false;
+            if (!collision[nx][ny].walkable) return false;
+            if (occupiedByOther(k, nx, ny)) return false;
+
+            if (inBounds(collision, planX[k], planY[k])) plan(planX[k] * height + planY[k], -1);
+            plan(nx * height + ny, 1);
+            planX[k] = nx;
+            planY[k] = ny;
+            return true;
         }
 
-        int sx = enemy.x();
-        int sy = enemy.y();
+        private boolean occupiedByOther(int k, int x, int y) {
+            int t = x * height + y;
+            int n = occupied[t] + (occStamp[t] == gen ? occDelta[t] : 0);
+            if (planX[k] == x && planY[k] == y) n--;
+            return n > 0;
+        }
 
-        Deque<int[]> q = new ArrayDeque<>();
-        visited[sx][sy] = true;
-        q.addLast(new int[] { sx, sy });
+        private void plan(int t, int delta) {
+            if (occStamp[t] != gen) {
+                occStamp[t] = gen;
+                occDelta[t] = 0;
+            }
+            occDelta[t] += delta;
+        }
 
-        int foundX = -1;
-        int foundY = -1;
+        private boolean passableFor(int x, int y) {
+            return collision[x][y].walkable && !(x == playerX && y == playerY) && !occupiedByOther(planning, x, y);
+        }
 
-        while (!q.isEmpty()) {
-            int[] cur = q.removeFirst();
-            int cx = cur[0];
-            int cy = cur[1];
+        // False only when walls alone already separate the enemy from every target, so the search would fail.
+        private boolean anyTargetInRegionOf(int k, int[] target, int targets) {
+            int r = regions.region(planX[k], planY[k]);
+            // An enemy standing on a wall can still step off it; let the search decide.
+            if (r == ReachabilityMap.BLOCKED) return true;
+            for (int t = 0; t < targets; t++) {
+                if (regions.region(target[t] / height, target[t] % height) == r) return true;
+            }
+            return false;
+        }
 
-            for (int[] t : targets) {
-                if (t[0] == cx && t[1] == cy) {
-                    foundX = cx;
-                    foundY = cy;
-                    q.clear();
-                    break;
-                }
+        /** First step of a shortest path to a free tile next to the player, or null if none is reachable. */
+        private Direction nextStepTowardPlayer(int k) {
+            int targets = 0;
+            int[] target = targetTiles;
+            for (Direction d : DIRECTIONS) {
+                int tx = playerX + d.dx;
+                int ty = playerY + d.dy;
+                if (!inBounds(collision, tx, ty)) continue;
+                if (!collision[tx][ty].walkable) continue;
+                if (occupiedByOther(k, tx, ty)) continue;
+                target[targets++] = tx * height + ty;
             }
-            if (foundX != -1) break;
-
-            for (Direction d : Direction.values()) {
-                int nx = cx + d.dx;
-                int ny = cy + d.dy;
-
-                if (!inBounds(collision, nx, ny)) continue;
-                if (visited[nx][ny]) continue;
-                if (!collision[nx][ny].walkable) continue;
-                if (nx == playerX && ny == playerY) continue;
-                if (occupiedByEnemy(enemies, nx, ny, enemy)) continue;
-
-                visited[nx][ny] = true;
-                prevX[nx][ny] = cx;
-                prevY[nx][ny] = cy;
-                q.addLast(new int[] { nx, ny });
+            if (targets == 0) return null;
+            if (regions != null && !anyTargetInRegionOf(k, target, targets)) return null;
+
+            int start = planX[k] * height + planY[k];
+            planning = k;
+            int cur = pathFinder.firstStep(collision.length, height, passable, start, target, targets);
+            if (cur == -1) return null;
+
+            int dx = cur / height - planX[k];
+            int dy = cur % height - planY[k];
+            for (Direction d : DIRECTIONS) {
+                if (d.dx == dx && d.dy == dy) return d;
             }
+            return null;
         }
+    }
 
-        if (foundX == -1) return null;
+    private void ensureScratch(int tiles) {
+        if (tiles == scratchTiles) return;
+        scratchTiles = tiles;
+        occupied = new int[tiles];
+        occDelta = new int[tiles];
+        occStamp = new int[tiles];
+        occGen = 0;
+        indexStale = true;
+    }
 
-        int cx = foundX;
-        int cy = foundY;
-        while (true) {
-            int px = prevX[cx][cy];
-            int py = prevY[cx][cy];
-            if (px == -1 || py == -1) break;
-            if (px == sx && py == sy) break;
-            cx = px;
-            cy = py;
+    private void ensureIndex(TileType[][] collision, List<Enemy> enemies) {
+        if (!indexStale && indexedEnemies == enemies && indexedSize == enemies.size() && indexedCollision == collision) {
+            return;
         }
+        indexedEnemies = enemies;
+        indexedSize = enemies.size();
+        indexedCollision = collision;
+        indexStale = false;
+        int height = collision[0].length;
+        bucketCols = (collision.length + BUCKET_TILES - 1) / BUCKET_TILES;
+        bucketRows = (height + BUCKET_TILES - 1) / BUCKET_TILES;
+        if (buckets.length != bucketCols * bucketRows) {
+            buckets = new int[bucketCols * bucketRows][];
+            for (int b = 0; b < buckets.length; b++) buckets[b] = new int[4];
+            bucketSize = new int[buckets.length];
+        }
+        Arrays.fill(bucketSize, 0);
+        Arrays.fill(occupied, 0);
+        if (candidates.length < indexedSize) candidates = new int[indexedSize];
+        for (int i = 0; i < indexedSize; i++) {
+            Enemy e = enemies.get(i);
+            bucketAdd(bucketOf(e.x(), e.y()), i);
+            if (inBounds(collision, e.x(), e.y())) occupied[e.x() * height + e.y()]++;
+        }
+    }
+
+    // Enemies off the grid go to the nearest bucket; clamping never moves them away from a player on the grid.
+    private int bucketOf(int x, int y) {
+        int bx = Math.max(0, Math.min(bucketCols - 1, x / BUCKET_TILES));
+        int by = Math.max(0, Math.min(bucketRows - 1, y / BUCKET_TILES));
+        return bx * bucketRows + by;
+    }
+
+    private void bucketAdd(int b, int i) {
+        if (bucketSize[b] == buckets[b].length) buckets[b] = Arrays.copyOf(buckets[b], bucketSize[b] * 2);
+        buckets[b][bucketSize[b]++] = i;
+    }
+
+    private void bucketRemove(int b, int i) {
+        int[] items = buckets[b];
+        for (int j = 0, n = bucketSize[b]; j < n; j++) {
+            if (items[j] != i) continue;
+            items[j] = items[n - 1];
+            bucketSize[b] = n - 1;
+            return;
+        }
+    }
 
-        int dx = cx - sx;
-        int dy = cy - sy;
-        for (Direction d : Direction.values()) {
-            if (d.dx == dx && d.dy == dy) return d;
+    // A committed move of enemy i: keeps the buckets and the occupancy counts in step with the positions.
+    private void moveIndexed(int i, int fromX, int fromY, int toX, int toY) {
+        int height = indexedCollision[0].length;
+        if (inBounds(indexedCollision, fromX, fromY)) occupied[fromX * height + fromY]--;
+        occupied[toX * height + toY]++;
+        int from = bucketOf(fromX, fromY);
+        int to = bucketOf(toX, toY);
+        if (from == to) return;
+        bucketRemove(from, i);
+        bucketAdd(to, i);
+    }
+
+    // Fills candidates with the indices of all enemies in buckets that reach within sleepRadius of the player.
+    private int collectNear(int playerX, int playerY) {
+        int width = indexedCollision.length;
+        int height = indexedCollision[0].length;
+        int x = Math.max(0, Math.min(width - 1, playerX));
+        int y = Math.max(0, Math.min(height - 1, playerY));
+        int bx0 = (x - Math.min(sleepRadius, x)) / BUCKET_TILES;
+        int bx1 = (x + Math.min(sleepRadius, width - 1 - x)) / BUCKET_TILES;
+        int by0 = (y - Math.min(sleepRadius, y)) / BUCKET_TILES;
+        int by1 = (y + Math.min(sleepRadius, height - 1 - y)) / BUCKET_TILES;
+        int n = 0;
+        for (int bx = bx0; bx <= bx1; bx++) {
+            for (int by = by0; by <= by1; by++) {
+                int b = bx * bucketRows + by;
+                System.arraycopy(buckets[b], 0, candidates, n, bucketSize[b]);
+                n += bucketSize[b];
+            }
         }
-        return null;
+        return n;
+    }
+
+    private void tryMoveRandom(TileType[][] collision, List<Enemy> enemies, Enemy e) {
+        Direction dir = DIRECTIONS[rng.nextInt(DIRECTIONS.length)];
+        tryMove(collision, enemies, e, dir);
     }
 
     private boolean tryMove(TileType[][] collision, List<Enemy> enemies, Enemy e, Direction dir) {
@@ -0,0 +1,177 @@
+package com.citysurvival.core.logic;
+
+/**
+ * A* with Jump Point Search pruning for 4-neighbour, uniform-cost grids.
+ *
+ * Vertical moves play the role that diagonal moves have in classic 8-neighbour JPS: a vertical jump also probes
+ * left and right at every tile and stops where one of those horizontal jumps finds something, while horizontal jumps
+ * only stop at targets and at forced neighbours (a wall behind an opening above or below). Only the tiles where a
+ * jump stops are put on the open list, so long open streets cost a handful of expansions instead of a flood.
+ * The heuristic is the Manhattan distance to the nearest target, which is admissible, so paths are shortest.
+ */
+public class JumpPointPathFinder implements PathFinder {
+    private int tiles = -1;
+    private int[] gScore;
+    private int[] parent;
+    private int[] openStamp;
+    private int[] closedStamp;
+    private int[] targetStamp;
+    private final TileHeap open = new TileHeap();
+    private int stamp = 0;
+    private int lastLength = -1;
+    private long expanded = 0;
+    private long scanned = 0;
+
+    // Current query.
+    private int width;
+    private int height;
+    private Passable passable;
+    private int[] targets;
+    private int targetCount;
+
+    @Override
+    public int firstStep(int width, int height, Passable passable, int start, int[] targets, int targetCount) {
+        ensureScratch(width * height);
+        this.width = width;
+        this.height = height;
+        this.passable = passable;
+        this.targets = targets;
+        this.targetCount = targetCount;
+        int s = ++stamp;
+        for (int i = 0; i < targetCount; i++) targetStamp[targets[i]] = s;
+        if (targetStamp[start] == s) return -1;
+
+        open.clear();
+        gScore[start] = 0;
+        parent[start] = -1;
+        openStamp[start] = s;
+        open.push(heuristic(start), start);
+
+        int found = -1;
+        while (!open.isEmpty()) {
+            int cur = open.pop();
+            if (closedStamp[cur] == s) continue;
+            closedStamp[cur] = s;
+            expanded++;
+            if (targetStamp[cur] == s) {
+                found = cur;
+                break;
+            }
+            expandSuccessors(cur, s);
+        }
+        this.passable = null;
+        this.targets = null;
+        if (found == -1) return -1;
+
+        lastLength = gScore[found];
+        int jp = found;
+        while (parent[jp] != start) jp = parent[jp];
+        // Jumps are straight lines, so the first step heads from start towards the first jump point.
+        int sx = start / height;
+        int sy = start % height;
+        int dx = Integer.signum(jp / height - sx);
+        int dy = Integer.signum(jp % height - sy);
+        return (sx + dx) * height + (sy + dy);
+    }
+
+    private void expandSuccessors(int cur, int s) {
+        int x = cur / height;
+        int y = cur % height;
+        int p = parent[cur];
+        if (p == -1) {
+            // Start: all four directions, in Direction.values() order.
+            tryJump(cur, x, y, 0, 1, s);
+            tryJump(cur, x, y, 0, -1, s);
+            tryJump(cur, x, y, -1, 0, s);
+            tryJump(cur, x, y, 1, 0, s);
+            return;
+        }
+        int dx = Integer.signum(x - p / height);
+        int dy = Integer.signum(y - p % height);
+        if (dx != 0) {
+            tryJump(cur, x, y, 0, 1, s);
+            tryJump(cur, x, y, 0, -1, s);
+            tryJump(cur, x, y, dx, 0, s);
+        } else {
+            tryJump(cur, x, y, -1, 0, s);
+            tryJump(cur, x, y, 1, 0, s);
+            tryJump(cur, x, y, 0, dy, s);
+        }
+    }
+
+    private void tryJump(int from, int x, int y, int dx, int dy, int s) {
+        int jp = jump(x + dx, y + dy, dx, dy, s);
+        if (jp == -1 || closedStamp[jp] == s) return;
+        int g = gScore[from] + Math.abs(jp / height - x) + Math.abs(jp % height - y);
+        if (openStamp[jp] == s && gScore[jp] <= g) return;
+        openStamp[jp] = s;
+        gScore[jp] = g;
+        parent[jp] = from;
+        open.push(g + heuristic(jp), jp);
+    }
+
+    /** Walks from (x, y) in direction (dx, dy) and returns the first jump point, or -1 at a wall/edge. */
+    private int jump(int x, int y, int dx, int dy, int s) {
+        while (true) {
+            if (!open(x, y)) return -1;
+            int t = x * height + y;
+            if (targetStamp[t] == s) return t;
+            if (dx != 0) {
+                if ((open(x, y - 1) && !open(x - dx, y - 1)) || (open(x, y + 1) && !open(x - dx, y + 1))) return t;
+            } else {
+                if ((open(x - 1, y) && !open(x - 1, y - dy)) || (open(x + 1, y) && !open(x + 1, y - dy))) return t;
+                if (jump(x + 1, y, 1, 0, s) != -1 || jump(x - 1, y, -1, 0, s) != -1) return t;
+            }
+            x += dx;
+            y += dy;
+        }
+    }
+
+    private boolean open(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return false;
+        scanned++;
+        return passable.at(x, y);
+    }
+
+    private int heuristic(int t) {
+        int x = t / height;
+        int y = t % height;
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < targetCount; i++) {
+            int d = Math.abs(targets[i] / height - x) + Math.abs(targets[i] % height - y);
+            if (d < best) best = d;
+        }
+        return best;
+    }
+
+    private void ensureScratch(int n) {
+        if (n == tiles) return;
+        tiles = n;
+        gScore = new int[n];
+        parent = new int[n];
+        openStamp = new int[n];
+        closedStamp = new int[n];
+        targetStamp = new int[n];
+        stamp = 0;
+    }
+
+    @Override
+    public int lastPathLength() {
+        return lastLength;
+    }
+
+    @Override
+    public long expanded() {
+        return expanded;
+    }
+
+    @Override
+    public long scanned() {
+        return scanned;
+    }
+
+    @Override
+    public String name() {
+        return "jps";
+    }
+}
@@ -0,0 +1,201 @@
+package com.citysurvival.core.logic;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * Precomputed walking costs from a few landmark tiles to every tile of a {@link CostGrid}, one {@code short[]} per
+ * landmark. By the triangle inequality they give a lower bound on the cost between any two tiles (the ALT heuristic),
+ * which is far tighter than the Manhattan distance around buildings and is an O(landmarks) lookup.
+ *
+ * Costs are for entering a tile, so a path and its reverse differ by the costs of the two end tiles; the bound takes
+ * that into account and stays admissible on weighted maps. Landmarks all lie in the largest walkable region; tiles
+ * they can't reach (and costs too large for a short) are stored as {@link #UNKNOWN} and give no bound.
+ */
+public class LandmarkTable {
+    public static final short UNKNOWN = Short.MAX_VALUE;
+
+    private static final int MAGIC = 0x414C5431; // "ALT1"
+
+    private final CostGrid costs;
+    private final long checksum;
+    private final int requested;
+    private final int[] landmarks;
+    private final short[][] dist;
+
+    private LandmarkTable(CostGrid costs, long checksum, int requested, int[] landmarks, short[][] dist) {
+        this.costs = costs;
+        this.checksum = checksum;
+        this.requested = requested;
+        this.landmarks = landmarks;
+        this.dist = dist;
+    }
+
+    /**
+     * Picks up to {@code count} landmarks on the rim of the largest region (evenly spread by direction from the map
+     * centre) and computes their tables in parallel.
+     */
+    public static LandmarkTable compute(CostGrid costs, ReachabilityMap regions, int count) {
+        int[] picked = pickLandmarks(costs, regions, count);
+        short[][] dist = new short[picked.length][];
+        IntStream.range(0, picked.length).parallel().forEach(i -> dist[i] = distancesFrom(costs, picked[i]));
+        return new LandmarkTable(costs, checksum(costs), count, picked, dist);
+    }
+
+    private static int[] pickLandmarks(CostGrid costs, ReachabilityMap regions, int count) {
+        int width = costs.width();
+        int height = costs.height();
+        int[] size = new int[regions.labelCount()];
+        int largest = ReachabilityMap.BLOCKED;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int r = regions.region(x, y);
+                if (r == ReachabilityMap.BLOCKED) continue;
+                if (++size[r] > (largest == ReachabilityMap.BLOCKED ? 0 : size[largest])) largest = r;
+            }
+        }
+        if (largest == ReachabilityMap.BLOCKED || count <= 0) return new int[0];
+
+        int[] out = new int[count];
+        int n = 0;
+        double cx = (width - 1) / 2.0;
+        double cy = (height - 1) / 2.0;
+        for (int i = 0; i < count; i++) {
+            double angle = 2 * Math.PI * i / count;
+            double dx = Math.cos(angle) / Math.max(1, width);
+            double dy = Math.sin(angle) / Math.max(1, height);
+            // Farthest along the direction, preferring tiles close to the ray through the centre on long flat edges.
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    if (regions.region(x, y) != largest) continue;
+                    double along = (x - cx) * dx + (y - cy) * dy;
+                    double across = Math.abs((x - cx) * dy - (y - cy) * dx);
+                    double score = along - 0.001 * across;
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = x * height + y;
+                    }
+                }
+            }
+            boolean duplicate = false;
+            for (int j = 0; j < n; j++) duplicate |= out[j] == best;
+            if (!duplicate) out[n++] = best;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // Dijkstra over the whole grid from one tile.
+    private static short[] distancesFrom(CostGrid costs, int source) {
+        int width = costs.width();
+        int height = costs.height();
+        int[] d = new int[width * height];
+        Arrays.fill(d, Integer.MAX_VALUE);
+        TileHeap open = new TileHeap();
+        d[source] = 0;
+        open.push(0, source);
+        int[] next = new int[4];
+        while (!open.isEmpty()) {
+            int cur = open.pop();
+            int cx = cur / height;
+            int cy = cur % height;
+            int n = 0;
+            if (cy + 1 < height) next[n++] = cur + 1;
+            if (cy > 0) next[n++] = cur - 1;
+            if (cx > 0) next[n++] = cur - height;
+            if (cx + 1 < width) next[n++] = cur + height;
+            for (int i = 0; i < n; i++) {
+                int c = costs.costAt(next[i]);
+                if (c == 0 || d[cur] + c >= d[next[i]]) continue;
+                d[next[i]] = d[cur] + c;
+                open.push(d[next[i]], next[i]);
+            }
+        }
+        short[] out = new short[d.length];
+        for (int t = 0; t < d.length; t++) out[t] = d[t] < UNKNOWN ? (short) d[t] : UNKNOWN;
+        return out;
+    }
+
+    /** Whether this table was computed for exactly this cost grid instance. */
+    public boolean covers(CostGrid grid) {
+        return grid == costs;
+    }
+
+    public int landmarkCount() {
+        return landmarks.length;
+    }
+
+    /** Tile index of landmark {@code i}. */
+    public int landmark(int i) {
+        return landmarks[i];
+    }
+
+    /** Walking cost from landmark {@code i} to a tile, or {@link #UNKNOWN}. */
+    public int distance(int i, int tile) {
+        return dist[i][tile];
+    }
+
+    /**
+     * A lower bound on the cost of walking from tile {@code from} to tile {@code to} (indices {@code x * height + y}),
+     * never below their Manhattan distance times the cheapest tile cost. Walls, units and other obstacles only make real
+     * paths longer.
+     */
+    public int lowerBound(int from, int to) {
+        int height = costs.height();
+        int best = (Math.abs(from / height - to / height) + Math.abs(from % height - to % height)) * costs.minCost();
+        int extra = costs.costAt(to) - costs.costAt(from);
+        for (short[] d : dist) {
+            int a = d[from];
+            int b = d[to];
+            if (a == UNKNOWN || b == UNKNOWN) continue;
+            // d(from, to) >= d(L, to) - d(L, from), and via the reversed paths >= d(L, from) - d(L, to) + extra.
+            int bound = Math.max(b - a, a - b + extra);
+            if (bound > best) best = bound;
+        }
+        return best;
+    }
+
+    /** Fingerprint of a cost grid, used to tell whether a cached table still matches the map. */
+    public static long checksum(CostGrid costs) {
+        CRC32 crc = new CRC32();
+        int tiles = costs.width() * costs.height();
+        for (int t = 0; t < tiles; t++) crc.update(costs.costAt(t));
+        return ((long) costs.width() << 48) ^ ((long) costs.height() << 32) ^ crc.getValue();
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeLong(checksum);
+        out.writeInt(requested);
+        out.writeInt(landmarks.length);
+        for (int i = 0; i < landmarks.length; i++) {
+            out.writeInt(landmarks[i]);
+            for (short v : dist[i]) out.writeShort(v);
+        }
+    }
+
+    /**
+     * Reads a table written by {@link #write}. Returns null when it was computed for a different map or a different
+     * number of landmarks; it is then stale and should be recomputed.
+     */
+    public static LandmarkTable read(DataInputStream in, CostGrid costs, int count) throws IOException {
+        if (in.readInt() != MAGIC) return null;
+        long checksum = in.readLong();
+        if (checksum != checksum(costs)) return null;
+        if (in.readInt() != count) return null;
+        int n = in.readInt();
+        int tiles = costs.width() * costs.height();
+        int[] landmarks = new int[n];
+        short[][] dist = new short[n][tiles];
+        for (int i = 0; i < n; i++) {
+            landmarks[i] = in.readInt();
+            for (int t = 0; t < tiles; t++) dist[i][t] = in.readShort();
+        }
+        return new LandmarkTable(costs, checksum, count, landmarks, dist);
+    }
+}
@@ -0,0 +1,53 @@
+package com.citysurvival.core.logic;
+
+/**
+ * Shortest 4-neighbour path search on a grid, used by {@link EnemyAISystem} to find an enemy's next step.
+ *
+ * Tiles are addressed as {@code x * height + y}. Passability is supplied per query so callers can treat other units
+ * as obstacles; the finder only ever asks about in-bounds tiles. Implementations keep scratch buffers between calls
+ * and are not thread-safe.
+ */
+public interface PathFinder {
+    @FunctionalInterface
+    interface Passable {
+        boolean at(int x, int y);
+    }
+
+    /**
+     * The tile of the first step of a shortest path from {@code start} to any of the first {@code targetCount}
+     * {@code targets}, or -1 when none is reachable or {@code start} is itself a target. The start tile does not have
+     * to be passable; targets do.
+     */
+    int firstStep(int width, int height, Passable passable, int start, int[] targets, int targetCount);
+
+    /** Terrain costs of the current map. Unweighted finders ignore them and treat every passable tile as cost 1. */
+    default void setCosts(CostGrid costs) {
+    }
+
+    /** Landmark distances of the current map, for finders that use them as a heuristic; others ignore them. */
+    default void setLandmarks(LandmarkTable landmarks) {
+    }
+
+    /** Length (total cost, for weighted finders) of the path found by the last successful {@link #firstStep} call. */
+    int lastPathLength();
+
+    /** Search nodes expanded (taken off the open list) since creation. */
+    long expanded();
+
+    /** Tiles whose passability was examined since creation. */
+    long scanned();
+
+    String name();
+
+    /** "bfs", "jps", "dial" or "alt" (case-insensitive); null for anything else. */
+    static PathFinder forName(String name) {
+        if (name == null) return null;
+        return switch (name.trim().toLowerCase()) {
+            case "bfs" -> new BfsPathFinder();
+            case "jps" -> new JumpPointPathFinder();
+            case "dial" -> new DialPathFinder();
+            case "alt" -> new AltPathFinder();
+            default -> null;
+        };
+    }
+}
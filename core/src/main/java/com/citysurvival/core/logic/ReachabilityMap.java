@@ -0,0 +1,122 @@
+package com.citysurvival.core.logic;
+
+import java.util.Arrays;
+
+import com.citysurvival.core.model.TileType;
+
+/**
+ * Connected regions of walkable tiles (4-neighbour), labelled once per map so "can A ever reach B" is an O(1) lookup
+ * instead of a flood fill.
+ *
+ * Labels only consider walls; enemies and the player are not obstacles here, so a shared region means a path may
+ * exist and different regions mean it never does. When a tile of the collision grid changes, call
+ * {@link #tileChanged(int, int)}; it relabels only the regions touching that tile. Nothing in the game changes the
+ * grid after loading yet.
+ */
+public class ReachabilityMap {
+    public static final int BLOCKED = -1;
+
+    private final TileType[][] collision;
+    private final int width;
+    private final int height;
+    // Region per tile (x * height + y), or BLOCKED.
+    private final int[] labels;
+    private final int[] stack;
+    private int nextLabel = 0;
+
+    public ReachabilityMap(TileType[][] collision) {
+        this.collision = collision;
+        this.width = collision.length;
+        this.height = width == 0 ? 0 : collision[0].length;
+        this.labels = new int[width * height];
+        this.stack = new int[width * height];
+        Arrays.fill(labels, BLOCKED);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (labels[x * height + y] == BLOCKED && collision[x][y].walkable) fill(x * height + y, nextLabel++);
+            }
+        }
+    }
+
+    /** Whether this map was computed for exactly this grid instance. */
+    public boolean covers(TileType[][] grid) {
+        return grid == collision;
+    }
+
+    /** Region label of a tile; {@link #BLOCKED} for walls and out-of-bounds positions. */
+    public int region(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return BLOCKED;
+        return labels[x * height + y];
+    }
+
+    /** True when both tiles are walkable and in the same region. */
+    public boolean connected(int ax, int ay, int bx, int by) {
+        int a = region(ax, ay);
+        return a != BLOCKED && a == region(bx, by);
+    }
+
+    /** Number of labels handed out so far (regions merged or split by later changes keep their old numbers unused). */
+    public int labelCount() {
+        return nextLabel;
+    }
+
+    /**
+     * Updates the labels after the walkability of one tile of the grid changed. Only the labels: a {@link CostGrid}
+     * can't open or close tiles, so the caller has to build a new one for the changed grid and recompute the
+     * {@link LandmarkTable} for it.
+     */
+    public void tileChanged(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return;
+        int t = x * height + y;
+        if (collision[x][y].walkable) {
+            // Opening a tile can only merge: the tile and everything it now connects become one region.
+            if (labels[t] == BLOCKED) fill(t, nextLabel++);
+        } else if (labels[t] != BLOCKED) {
+            // Closing a tile can split its region; relabel what's left from each side.
+            labels[t] = BLOCKED;
+            int[] nx = { x + 1, x - 1, x, x };
+            int[] ny = { y, y, y + 1, y - 1 };
+            int[] stale = new int[4];
+            int staleCount = 0;
+            for (int i = 0; i < 4; i++) {
+                int r = region(nx[i], ny[i]);
+                if (r != BLOCKED) stale[staleCount++] = r;
+            }
+            for (int i = 0; i < 4; i++) {
+                int r = region(nx[i], ny[i]);
+                if (r == BLOCKED || !isStale(r, stale, staleCount)) continue;
+                fill(nx[i] * height + ny[i], nextLabel++);
+            }
+        }
+    }
+
+    private static boolean isStale(int label, int[] stale, int count) {
+        for (int i = 0; i < count; i++) {
+            if (stale[i] == label) return true;
+        }
+        return false;
+    }
+
+    // Labels every walkable tile connected to start (whatever label it had) with label.
+    private void fill(int start, int label) {
+        int top = 0;
+        labels[start] = label;
+        stack[top++] = start;
+        while (top > 0) {
+            int cur = stack[--top];
+            int cx = cur / height;
+            int cy = cur % height;
+            if (cx + 1 < width) top = push(cur + height, cx + 1, cy, label, top);
+            if (cx > 0) top = push(cur - height, cx - 1, cy, label, top);
+            if (cy + 1 < height) top = push(cur + 1, cx, cy + 1, label, top);
+            if (cy > 0) top = push(cur - 1, cx, cy - 1, label, top);
+        }
+    }
+
+    private int push(int t, int x, int y, int label, int top) {
+        if (labels[t] == label || !collision[x][y].walkable) return top;
+        labels[t] = label;
+        stack[top] = t;
+        return top + 1;
+    }
+}
@@ -0,0 +1,50 @@
+package com.citysurvival.core.logic;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of tiles keyed by an int priority, packed as {@code priority << 32 | tile} in a long array. There is
+ * no decrease-key: callers push again and skip stale entries when they pop them.
+ */
+final class TileHeap {
+    private long[] heap = new long[64];
+    private int size;
+
+    void clear() {
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void push(int priority, int tile) {
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        long v = ((long) priority << 32) | tile;
+        int i = size++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= v) break;
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = v;
+    }
+
+    /** Removes the entry with the lowest priority (ties: lowest tile) and returns its tile. */
+    int pop() {
+        long top = heap[0];
+        long last = heap[--size];
+        int i = 0;
+        while (true) {
+            int c = 2 * i + 1;
+            if (c >= size) break;
+            if (c + 1 < size && heap[c + 1] < heap[c]) c++;
+            if (heap[c] >= last) break;
+            heap[i] = heap[c];
+            i = c;
+        }
+        if (size > 0) heap[i] = last;
+        return (int) top;
+    }
+}
@@ -0,0 +1,102 @@
+package com.citysurvival.core.render;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * FreeType fonts generated once per (size, style) from a TTF, with weight, outline and drop shadow baked into the
+ * glyph atlas so every string is a single draw at native resolution.
+ *
+ * Sizes are given as the scale the screens used to apply to the default 15px {@link BitmapFont}, which keeps layouts
+ * unchanged. The game ships DejaVu Sans for this; only when the configured TTF is missing is {@link #available()}
+ * false, and callers then keep their multi-pass drawing with the default font.
+ */
+public class FontCache implements Disposable {
+    private static final String TAG = "FONT";
+    private static final float BASE_PX = 15f;
+
+    public enum Style {
+        /** White fill plus a thin same-colour border, tinted as a whole by {@link BitmapFont#setColor}. */
+        SEMIBOLD,
+        /** Semibold with a baked 1px black outline; tinting only affects the fill. */
+        OUTLINED,
+        /** Semibold with a baked 2px drop shadow (black, 75%). */
+        SHADOWED
+    }
+
+    private final FreeTypeFontGenerator generator;
+    private final Map<String, BitmapFont> fonts = new HashMap<>();
+
+    public FontCache(String ttfInternalPath) {
+        FreeTypeFontGenerator g = null;
+        FileHandle fh = ttfInternalPath == null || ttfInternalPath.isBlank() ? null : Gdx.files.internal(ttfInternalPath);
+        if (fh != null && fh.exists()) {
+            try {
+                g = new FreeTypeFontGenerator(fh);
+            } catch (GdxRuntimeException e) {
+                Gdx.app.error(TAG, "Could not open font " + ttfInternalPath, e);
+            }
+        } else {
+            Gdx.app.log(TAG, "No TTF at '" + ttfInternalPath + "'; using the built-in bitmap font.");
+        }
+        generator = g;
+    }
+
+    public boolean available() {
+        return generator != null;
+    }
+
+    /** The font for the given default-font scale and style, generated on first use. Render thread only. */
+    public BitmapFont get(float scale, Style style) {
+        if (generator == null) throw new IllegalStateException("No TTF loaded");
+        int px = Math.max(6, Math.round(BASE_PX * scale));
+        String key = px + ":" + style;
+        BitmapFont f = fonts.get(key);
+        if (f == null) {
+            f = generate(px, style);
+            fonts.put(key, f);
+        }
+        return f;
+    }
+
+    private BitmapFont generate(int px, Style style) {
+        FreeTypeFontGenerator.FreeTypeFontParameter p = new FreeTypeFontGenerator.FreeTypeFontParameter();
+        p.size = px;
+        p.color = Color.WHITE;
+        p.minFilter = TextureFilter.Linear;
+        p.magFilter = TextureFilter.Linear;
+        // Roughly what drawing the string twice, 1px apart, used to add.
+        p.borderWidth = 0.6f;
+        p.borderColor = Color.WHITE;
+        p.borderStraight = true;
+        switch (style) {
+            case OUTLINED -> {
+                p.borderWidth = 1.5f;
+                p.borderColor = Color.BLACK;
+            }
+            case SHADOWED -> {
+                p.shadowOffsetX = 2;
+                p.shadowOffsetY = 2;
+                p.shadowColor = new Color(0f, 0f, 0f, 0.75f);
+            }
+            default -> {}
+        }
+        return generator.generateFont(p);
+    }
+
+    @Override
+    public void dispose() {
+        for (BitmapFont f : fonts.values()) f.dispose();
+        fonts.clear();
+        if (generator != null) generator.dispose();
+    }
+}
@@ -0,0 +1,375 @@
+package com.citysurvival.core.render;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Draws the static tile layers of a map from prebaked {@link SpriteCache} chunks instead of rebuilding their vertices
+ * every frame.
+ *
+ * At construction each run of consecutive visible, static tile layers is baked into 16x16-tile chunks (all layers of
+ * the run in one cache entry, in layer order); rendering only draws the chunks that intersect the camera. Every other
+ * visible layer (animated tiles, parallax, image layers, group layers with everything in them) is drawn in its original
+ * position in the layer order by the wrapped {@link OrthogonalTiledMapRenderer}.
+ *
+ * The tiles used by the cached layers are also packed into one atlas when their pixels are available, so a chunk is a
+ * single draw call even for image-collection tilesets where every tile is its own texture.
+ */
+public class StaticTileLayerRenderer implements Disposable {
+    private static final String TAG = "TMX";
+    private static final int CHUNK_TILES = 16;
+    // SpriteCache with indices supports at most 8191 sprites.
+    private static final int MAX_SPRITES_PER_CACHE = 8000;
+
+    private final OrthogonalTiledMapRenderer fallback;
+    private final List<SpriteCache> caches = new ArrayList<>();
+    private final List<Object> passes = new ArrayList<>();
+    private final Rectangle view = new Rectangle();
+    private TextureAtlas atlas;
+    private int cacheFill = 0;
+
+    private static final class Chunk {
+        SpriteCache cache;
+        int cacheId;
+        final Rectangle bounds = new Rectangle();
+    }
+
+    /** Baked chunks of consecutive static layers. */
+    private static final class StaticRun {
+        final List<Chunk> chunks = new ArrayList<>();
+    }
+
+    public StaticTileLayerRenderer(TiledMap map, OrthogonalTiledMapRenderer fallback) {
+        this.fallback = fallback;
+
+        List<TiledMapTileLayer> run = new ArrayList<>();
+        List<List<TiledMapTileLayer>> runs = new ArrayList<>();
+        for (int i = 0; i < map.getLayers().size(); i++) {
+            MapLayer layer = map.getLayers().get(i);
+            if (!layer.isVisible()) continue;
+            if (layer instanceof TiledMapTileLayer tl && isStatic(tl)) {
+                run.add(tl);
+                continue;
+            }
+            if (!run.isEmpty()) {
+                runs.add(run);
+                passes.add(run);
+                run = new ArrayList<>();
+            }
+            passes.add(new int[] {i});
+        }
+        if (!run.isEmpty()) {
+            runs.add(run);
+            passes.add(run);
+        }
+
+        Map<TiledMapTile, TextureRegion> packed = packTiles(runs);
+
+        int chunks = 0;
+        for (int p = 0; p < passes.size(); p++) {
+            if (!(passes.get(p) instanceof List<?> layers)) continue;
+            @SuppressWarnings("unchecked")
+            StaticRun baked = bake((List<TiledMapTileLayer>) layers, packed);
+            passes.set(p, baked);
+            chunks += baked.chunks.size();
+        }
+        Gdx.app.log(TAG, "Static tile cache: " + chunks + " chunks in " + caches.size() + " cache(s), "
+                + (passes.size() - runs.size()) + " dynamic layer(s), atlas=" + (atlas != null));
+    }
+
+    public void render(OrthographicCamera camera) {
+        float w = camera.viewportWidth * camera.zoom;
+        float h = camera.viewportHeight * camera.zoom;
+        view.set(camera.position.x - w / 2f, camera.position.y - h / 2f, w, h);
+
+        for (Object pass : passes) {
+            if (pass instanceof StaticRun run) {
+                SpriteCache current = null;
+                for (Chunk c : run.chunks) {
+                    if (!c.bounds.overlaps(view)) continue;
+                    if (c.cache != current) {
+                        if (current != null) current.end();
+                        // SpriteCache leaves GL_BLEND alone and SpriteBatch.end() disables it, so switch it on
+                        // ourselves or the transparent parts of upper layers draw opaque.
+                        if (current == null) enableBlending();
+                        current = c.cache;
+                        current.setProjectionMatrix(camera.combined);
+                        current.begin();
+                    }
+                    current.draw(c.cacheId);
+                }
+                if (current != null) current.end();
+            } else {
+                fallback.setView(camera);
+                fallback.render((int[]) pass);
+            }
+        }
+    }
+
+    private static void enableBlending() {
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    /**
+     * Draws the camera's view once with this renderer and once with the plain {@link OrthogonalTiledMapRenderer} into
+     * off-screen buffers and returns the number of pixels that differ (by more than rounding). 0 means the cache
+     * renders the map exactly like the reference renderer.
+     */
+    public int countMismatchedPixels(OrthographicCamera camera) {
+        int w = Math.max(1, (int) camera.viewportWidth);
+        int h = Math.max(1, (int) camera.viewportHeight);
+        Pixmap cached = null;
+        Pixmap reference = null;
+        try {
+            cached = drawOffscreen(w, h, () -> render(camera));
+            reference = drawOffscreen(w, h, () -> {
+                fallback.setView(camera);
+                fallback.render();
+            });
+            ByteBuffer a = cached.getPixels();
+            ByteBuffer b = reference.getPixels();
+            int mismatched = 0;
+            for (int i = 0; i < w * h * 4; i += 4) {
+                for (int c = 0; c < 4; c++) {
+                    if (Math.abs((a.get(i + c) & 0xFF) - (b.get(i + c) & 0xFF)) > 2) {
+                        mismatched++;
+                        break;
+                    }
+                }
+            }
+            return mismatched;
+        } finally {
+            if (cached != null) cached.dispose();
+            if (reference != null) reference.dispose();
+        }
+    }
+
+    /**
+     * {@link #countMismatchedPixels(OrthographicCamera)} for the whole of another map, with a renderer built and
+     * disposed just for the check.
+     */
+    public static int countMismatchedPixels(TiledMap map) {
+        TiledMapTileLayer first = null;
+        for (MapLayer layer : map.getLayers()) {
+            if (layer instanceof TiledMapTileLayer tl) {
+                first = tl;
+                break;
+            }
+        }
+        if (first == null) return 0;
+        OrthographicCamera camera = new OrthographicCamera();
+        camera.setToOrtho(false, first.getWidth() * first.getTileWidth(), first.getHeight() * first.getTileHeight());
+        OrthogonalTiledMapRenderer reference = new OrthogonalTiledMapRenderer(map, 1f);
+        StaticTileLayerRenderer cached = new StaticTileLayerRenderer(map, reference);
+        try {
+            return cached.countMismatchedPixels(camera);
+        } finally {
+            cached.dispose();
+            reference.dispose();
+        }
+    }
+
+    private static Pixmap drawOffscreen(int w, int h, Runnable draw) {
+        FrameBuffer fbo = new FrameBuffer(Pixmap.Format.RGBA8888, w, h, false);
+        try {
+            fbo.begin();
+            // Start from the state the game leaves behind: SpriteBatch.end() turns blending off.
+            Gdx.gl.glDisable(GL20.GL_BLEND);
+            Gdx.gl.glClearColor(0.07f, 0.07f, 0.09f, 1f);
+            Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+            draw.run();
+            return Pixmap.createFromFrameBuffer(0, 0, w, h);
+        } finally {
+            fbo.end();
+            fbo.dispose();
+        }
+    }
+
+    private static boolean isStatic(TiledMapTileLayer layer) {
+        if (layer.getParallaxX() != 1f || layer.getParallaxY() != 1f) return false;
+        for (int x = 0; x < layer.getWidth(); x++) {
+            for (int y = 0; y < layer.getHeight(); y++) {
+                TiledMapTileLayer.Cell cell = layer.getCell(x, y);
+                if (cell != null && cell.getTile() instanceof AnimatedTiledMapTile) return false;
+            }
+        }
+        return true;
+    }
+
+    private StaticRun bake(List<TiledMapTileLayer> layers, Map<TiledMapTile, TextureRegion> packed) {
+        StaticRun run = new StaticRun();
+        TiledMapTileLayer first = layers.get(0);
+        float tileW = first.getTileWidth();
+        float tileH = first.getTileHeight();
+        int width = first.getWidth();
+        int height = first.getHeight();
+
+        for (int cy = 0; cy < height; cy += CHUNK_TILES) {
+            for (int cx = 0; cx < width; cx += CHUNK_TILES) {
+                int count = 0;
+                for (TiledMapTileLayer layer : layers) {
+                    for (int y = cy; y < Math.min(cy + CHUNK_TILES, layer.getHeight()); y++) {
+                        for (int x = cx; x < Math.min(cx + CHUNK_TILES, layer.getWidth()); x++) {
+                            if (layer.getCell(x, y) != null && layer.getCell(x, y).getTile() != null) count++;
+                        }
+                    }
+                }
+                if (count == 0) continue;
+
+                SpriteCache cache = cacheWithRoom(count);
+                cache.beginCache();
+                for (TiledMapTileLayer layer : layers) {
+                    cache.setColor(1f, 1f, 1f, layer.getOpacity());
+                    for (int y = cy; y < Math.min(cy + CHUNK_TILES, layer.getHeight()); y++) {
+                        for (int x = cx; x < Math.min(cx + CHUNK_TILES, layer.getWidth()); x++) {
+                            addCell(cache, layer, x, y, packed);
+                        }
+                    }
+                }
+                Chunk chunk = new Chunk();
+                chunk.cache = cache;
+                chunk.cacheId = cache.endCache();
+                // One tile of slack for tile offsets and oversized tiles.
+                chunk.bounds.set((cx - 1) * tileW, (cy - 1) * tileH, (CHUNK_TILES + 2) * tileW, (CHUNK_TILES + 2) * tileH);
+                run.chunks.add(chunk);
+            }
+        }
+        return run;
+    }
+
+    private void addCell(SpriteCache cache, TiledMapTileLayer layer, int x, int y, Map<TiledMapTile, TextureRegion> packed) {
+        TiledMapTileLayer.Cell cell = layer.getCell(x, y);
+        if (cell == null || cell.getTile() == null) return;
+        TiledMapTile tile = cell.getTile();
+
+        TextureRegion src = packed.getOrDefault(tile, tile.getTextureRegion());
+        TextureRegion region = src;
+        if (cell.getFlipHorizontally() || cell.getFlipVertically()) {
+            region = new TextureRegion(src);
+            region.flip(cell.getFlipHorizontally(), cell.getFlipVertically());
+        }
+
+        float w = region.getRegionWidth();
+        float h = region.getRegionHeight();
+        float px = x * layer.getTileWidth() + tile.getOffsetX() + layer.getRenderOffsetX();
+        float py = y * layer.getTileHeight() + tile.getOffsetY() - layer.getRenderOffsetY();
+        // Rotation steps are counter-clockwise quarter turns around the tile centre, as in OrthogonalTiledMapRenderer.
+        cache.add(region, px, py, w / 2f, h / 2f, w, h, 1f, 1f, cell.getRotation() * 90f);
+    }
+
+    private SpriteCache cacheWithRoom(int sprites) {
+        SpriteCache last = caches.isEmpty() ? null : caches.get(caches.size() - 1);
+        if (last != null && cacheFill + sprites <= MAX_SPRITES_PER_CACHE) {
+            cacheFill += sprites;
+            return last;
+        }
+        SpriteCache cache = new SpriteCache(MAX_SPRITES_PER_CACHE, true);
+        caches.add(cache);
+        cacheFill = sprites;
+        return cache;
+    }
+
+    /**
+     * Packs every distinct tile region of the static layers into one atlas. Returns an empty map (regions are then used
+     * as-is) when any tile's pixels can't be read back, e.g. for compressed or GPU-only textures.
+     */
+    private Map<TiledMapTile, TextureRegion> packTiles(List<List<TiledMapTileLayer>> runs) {
+        Map<TiledMapTile, TextureRegion> result = new IdentityHashMap<>();
+        Map<Texture, Pixmap> pixels = new IdentityHashMap<>();
+        Map<String, List<TiledMapTile>> byName = new HashMap<>();
+        PixmapPacker packer = new PixmapPacker(1024, 1024, Pixmap.Format.RGBA8888, 2, true);
+        try {
+            for (List<TiledMapTileLayer> run : runs) {
+                for (TiledMapTileLayer layer : run) {
+                    for (int x = 0; x < layer.getWidth(); x++) {
+                        for (int y = 0; y < layer.getHeight(); y++) {
+                            TiledMapTileLayer.Cell cell = layer.getCell(x, y);
+                            if (cell == null || cell.getTile() == null || result.containsKey(cell.getTile())) continue;
+                            TiledMapTile tile = cell.getTile();
+                            TextureRegion r = tile.getTextureRegion();
+                            Pixmap src = pixels.computeIfAbsent(r.getTexture(), StaticTileLayerRenderer::readPixels);
+                            if (src == null) return new IdentityHashMap<>();
+
+                            String name = "tile" + tile.getId() + "_" + System.identityHashCode(tile);
+                            Pixmap part = new Pixmap(r.getRegionWidth(), r.getRegionHeight(), Pixmap.Format.RGBA8888);
+                            part.setBlending(Pixmap.Blending.None);
+                            part.drawPixmap(src, 0, 0, r.getRegionX(), r.getRegionY(), r.getRegionWidth(), r.getRegionHeight());
+                            packer.pack(name, part);
+                            part.dispose();
+                            byName.computeIfAbsent(name, k -> new ArrayList<>()).add(tile);
+                            result.put(tile, null);
+                        }
+                    }
+                }
+            }
+            if (packer.getPages().size > 1) {
+                // More than one page would just trade texture switches for page switches.
+                return new IdentityHashMap<>();
+            }
+            atlas = packer.generateTextureAtlas(TextureFilter.Nearest, TextureFilter.Nearest, false);
+            for (Map.Entry<String, List<TiledMapTile>> e : byName.entrySet()) {
+                TextureRegion region = atlas.findRegion(e.getKey());
+                for (TiledMapTile tile : e.getValue()) result.put(tile, region);
+            }
+            return result;
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error(TAG, "Could not pack tiles, drawing from the original textures", e);
+            return new IdentityHashMap<>();
+        } finally {
+            packer.dispose();
+            for (Pixmap pm : pixels.values()) {
+                if (pm != null) pm.dispose();
+            }
+        }
+    }
+
+    /** A copy of the texture's pixels, or null if they can't be read back. */
+    private static Pixmap readPixels(Texture texture) {
+        TextureData data = texture.getTextureData();
+        if (data.getType() != TextureData.TextureDataType.Pixmap) return null;
+        if (!data.isPrepared()) data.prepare();
+        Pixmap pm = data.consumePixmap();
+        if (pm == null) return null;
+        // Copy so we can always dispose ours, whether or not the texture data keeps its pixmap.
+        Pixmap copy = new Pixmap(pm.getWidth(), pm.getHeight(), Pixmap.Format.RGBA8888);
+        copy.setBlending(Pixmap.Blending.None);
+        copy.drawPixmap(pm, 0, 0);
+        if (data.disposePixmap()) pm.dispose();
+        return copy;
+    }
+
+    @Override
+    public void dispose() {
+        for (SpriteCache c : caches) c.dispose();
+        caches.clear();
+        if (atlas != null) atlas.dispose();
+        atlas = null;
+    }
+}
@@ -2,12 +2,13 @@ package com.citysurvival.core.screens;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 
+import com.badlogic.gdx.Application;
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Input;
 import com.badlogic.gdx.ScreenAdapter;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
@@ -23,14 +24,27 @@ import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.ScreenUtils;
+import com.citysurvival.core.CitySurvivalGame;
+import com.citysurvival.core.StartupTimer;
 import com.citysurvival.core.audio.AudioBootstrap;
+import com.citysurvival.core.audio.SfxMixer;
+import com.citysurvival.core.input.Command;
+import com.citysurvival.core.input.CommandQueue;
+import com.citysurvival.core.input.GameInputProcessor;
+import com.citysurvival.core.input.KeyBindings;
+import com.citysurvival.core.io.AutosaveService;
+import com.citysurvival.core.io.GameAssets;
+import com.citysurvival.core.io.LandmarkCache;
 import com.citysurvival.core.io.SaveGameService;
 import com.citysurvival.core.io.TmxMapLoaderService;
 import com.citysurvival.core.logic.CombatSystem;
 import com.citysurvival.core.logic.EnemyAISystem;
+import com.citysurvival.core.logic.PathFinder;
 import com.citysurvival.core.model.Direction;
 import com.citysurvival.core.model.Enemy;
 import com.citysurvival.core.model.GameStats;
@@ -39,10 +53,17 @@ import com.citysurvival.core.model.TileType;
 import com.citysurvival.core.model.WorldObject;
 import com.citysurvival.core.model.items.ItemType;
 import com.citysurvival.core.model.items.Weapon;
+import com.citysurvival.core.render.FontCache;
+import com.citysurvival.core.render.StaticTileLayerRenderer;
 import com.citysurvival.core.supabase.CloudSaveService;
+import com.citysurvival.core.supabase.CloudSyncQueue;
 import com.citysurvival.core.supabase.SupabaseClient;
+import com.citysurvival.core.supabase.SupabaseException;
+import com.citysurvival.core.supabase.SupabaseHttp;
 
 public class GameScreen extends ScreenAdapter {
+    private final GameAssets assets;
+
     private final SpriteBatch batch = new SpriteBatch();
     private final BitmapFont font = new BitmapFont();
     private final OrthographicCamera camera = new OrthographicCamera();
@@ -72,6 +93,12 @@ public class GameScreen extends ScreenAdapter {
     private String tmxMapPath = "maps/city1.tmx";
     private String saveFile = "savegame.json";
 
+    private boolean autosaveEnabled = true;
+    private int autosaveEveryTurns = 10;
+    private int autosaveSlots = 3;
+    private String autosaveFile = "autosave";
+    private AutosaveService autosave;
+
     private boolean musicEnabled = true;
     private boolean sfxEnabled = true;
     private String musicPath = "audio/bgm.ogg";
@@ -82,16 +109,32 @@ public class GameScreen extends ScreenAdapter {
     private float sfxVolume = 0.85f;
     private float attackSfxVolume = 0.85f;
     private float victorySfxVolume = 0.90f;
+    private int sfxMaxVoices = 3;
+    private SfxMixer sfxMixer;
     private Music bgm;
     private Sound hitSfx;
     private Sound attackSfx;
     private Sound victorySfx;
+    // Bumped on every (re)load/dispose so late fallback callbacks for a stale load are ignored.
+    private int audioGeneration = 0;
     private boolean victorySfxPlayed = false;
 
     private float cameraZoom = 0.5f;
 
     private TiledMap tiledMap;
+    // Path tiledMap was acquired under from the shared map cache.
+    private String tiledMapPath;
+    // Immutable per-map data (collision, spawn table) reused by every restart on the same map.
+    private TmxMapLoaderService.MapData mapData;
     private OrthogonalTiledMapRenderer mapRenderer;
+    // Static layers from SpriteCache chunks; the plain renderer draws the rest (and everything when disabled).
+    private StaticTileLayerRenderer staticMapRenderer;
+    private boolean staticTileCache = true;
+    // Compare the cached layers against OrthogonalTiledMapRenderer on the first frame after a map load.
+    private boolean staticTileCacheCheck = false;
+    private boolean staticTileCheckPending = false;
+    // Has an image layer and a group layer, which the game maps so far don't, so the check also covers those.
+    private static final String STATIC_TILE_CHECK_MAP = "maps/checks/layer_kinds.tmx";
 
     private TileType[][] collision;
     private Player player;
@@ -102,15 +145,53 @@ public class GameScreen extends ScreenAdapter {
     private boolean gameOver = false;
 
     private boolean victory = false;
+
+    // Key events are queued by the input processor and applied in order at the start of the next frame.
+    private CommandQueue commands = new CommandQueue(4);
+    private KeyBindings keyBindings = KeyBindings.defaults();
+    private GameInputProcessor inputProcessor;
+    private int inputQueueSize = 4;
+    private int keyRepeatDelayMs = 220;
+    private int keyRepeatIntervalMs = 110;
+    // Wall time per frame spent applying queued turns; whatever doesn't fit waits for the next frame.
+    private float turnBudgetMs = 4f;
+
+    // Enemy phase in progress; it is planned across frames within aiBudgetMs and applied all at once when done.
+    private EnemyAISystem.Turn enemyTurn;
+    private boolean enemyTurnAlreadyDamaged;
+    private boolean enemyTurnAllowsAdjacentAttack;
+    private float aiBudgetMs = 3f;
+    private int aiActiveRadius = 24;
+    private int aiSleepRadius = 48;
+    private int aiFarUpdateEvery = 4;
+    private String aiPathfinder = "bfs";
+    private int aiFollowRange = 6;
+    private int aiLandmarks = 0;
+    private String landmarkCacheDir = "cache/landmarks";
+    private long aiDeadlineNanos;
     private int victoryMenuIndex = 0; // 0=Restart, 1=Exit
 
     private CloudSaveService cloudSave;
+    private CloudSyncQueue cloudSync;
     private String cloudPlayerId;
     private int cloudSlot = 1;
+    private boolean cloudInFlight = false;
+    private String cloudStatus;
+    private float cloudStatusTime = 0f;
+    // Bumped by hide() and dispose(); cloud callbacks from an earlier generation are dropped unapplied.
+    private int cloudGeneration = 0;
+    private boolean disposed = false;
+
+    public GameScreen(CitySurvivalGame game) {
+        this.assets = game.assets();
+    }
 
     @Override
     public void show() {
         loadGameProperties();
+        enemyAI.setFollowRange(aiFollowRange);
+        enemyAI.setLevelOfDetail(aiActiveRadius, aiSleepRadius, aiFarUpdateEvery);
+        configurePathFinder();
         loadAssets();
         loadAudio();
         loadNewGameFromTmx();
@@ -125,8 +206,24 @@ public class GameScreen extends ScreenAdapter {
         hudCamera.update();
 
         initSupabaseIfConfigured();
+        initAutosave();
 
         startBackgroundMusicIfEnabled();
+
+        commands = new CommandQueue(inputQueueSize);
+        inputProcessor = new GameInputProcessor(keyBindings, commands, keyRepeatDelayMs / 1000f, keyRepeatIntervalMs / 1000f);
+        Gdx.input.setInputProcessor(inputProcessor);
+        StartupTimer.mark("gameShown");
+    }
+
+    private void configurePathFinder() {
+        if (aiPathfinder.equalsIgnoreCase(enemyAI.pathFinder().name())) return;
+        PathFinder finder = PathFinder.forName(aiPathfinder);
+        if (finder == null) {
+            Gdx.app.error("GameScreen", "Unknown aiPathfinder '" + aiPathfinder + "', keeping " + enemyAI.pathFinder().name());
+            return;
+        }
+        enemyAI.setPathFinder(finder);
     }
 
     private void ensureDebugPixel() {
@@ -145,6 +242,10 @@ public class GameScreen extends ScreenAdapter {
             tileSize = Integer.parseInt(p.getProperty("tileSize", "32"));
             tmxMapPath = p.getProperty("tmxMap", "maps/city1.tmx");
             saveFile = p.getProperty("saveFile", "savegame.json");
+            autosaveEnabled = Boolean.parseBoolean(p.getProperty("autosaveEnabled", "true"));
+            autosaveEveryTurns = Math.max(1, Integer.parseInt(p.getProperty("autosaveEveryTurns", "10")));
+            autosaveSlots = Math.max(1, Integer.parseInt(p.getProperty("autosaveSlots", "3")));
+            autosaveFile = p.getProperty("autosaveFile", "autosave");
             cameraZoom = Float.parseFloat(p.getProperty("cameraZoom", "0.5"));
 
             musicEnabled = Boolean.parseBoolean(p.getProperty("musicEnabled", "true"));
@@ -157,6 +258,22 @@ public class GameScreen extends ScreenAdapter {
             sfxVolume = clamp01(parseFloatSafe(p.getProperty("sfxVolume", "0.85"), 0.85f));
             attackSfxVolume = clamp01(parseFloatSafe(p.getProperty("attackSfxVolume", "0.85"), 0.85f));
             victorySfxVolume = clamp01(parseFloatSafe(p.getProperty("victorySfxVolume", "0.90"), 0.90f));
+            sfxMaxVoices = Math.max(1, Integer.parseInt(p.getProperty("sfxMaxVoices", "3")));
+            staticTileCache = Boolean.parseBoolean(p.getProperty("staticTileCache", "true"));
+            staticTileCacheCheck = Boolean.parseBoolean(p.getProperty("staticTileCacheCheck", "false"));
+            keyBindings = KeyBindings.load(p);
+            inputQueueSize = Math.max(1, Integer.parseInt(p.getProperty("inputQueueSize", "4")));
+            keyRepeatDelayMs = Integer.parseInt(p.getProperty("keyRepeatDelayMs", "220"));
+            keyRepeatIntervalMs = Integer.parseInt(p.getProperty("keyRepeatIntervalMs", "110"));
+            turnBudgetMs = Math.max(0f, parseFloatSafe(p.getProperty("turnBudgetMs", "4"), 4f));
+            aiBudgetMs = Math.max(0f, parseFloatSafe(p.getProperty("aiBudgetMs", "3"), 3f));
+            aiActiveRadius = Integer.parseInt(p.getProperty("aiActiveRadius", "24"));
+            aiSleepRadius = Integer.parseInt(p.getProperty("aiSleepRadius", "48"));
+            aiFarUpdateEvery = Integer.parseInt(p.getProperty("aiFarUpdateEvery", "4"));
+            aiPathfinder = p.getProperty("aiPathfinder", "bfs");
+            aiFollowRange = Integer.parseInt(p.getProperty("aiFollowRange", "6"));
+            aiLandmarks = Math.max(0, Integer.parseInt(p.getProperty("aiLandmarks", "0")));
+            landmarkCacheDir = p.getProperty("landmarkCacheDir", "cache/landmarks");
         } catch (IOException | NumberFormatException | GdxRuntimeException ignored) {
         }
     }
@@ -184,6 +301,7 @@ public class GameScreen extends ScreenAdapter {
     }
 
     private void initSupabaseIfConfigured() {
+        closeCloudSync();
         try {
             InputStream is = Gdx.files.classpath("supabase.properties").read();
             Properties p = new Properties();
@@ -195,77 +313,115 @@ public class GameScreen extends ScreenAdapter {
             cloudSlot = Integer.parseInt(p.getProperty("slot", "1"));
 
             if (url != null && key != null && cloudPlayerId != null) {
-                cloudSave = new CloudSaveService(new SupabaseClient(url, key));
+                boolean gzipUploads = Boolean.parseBoolean(p.getProperty("gzipUploads", "false"));
+                cloudSave = new CloudSaveService(gzipUploads
+                        ? new SupabaseClient(url, key, SupabaseHttp.gzipRequests())
+                        : new SupabaseClient(url, key));
+                int batchSize = Integer.parseInt(p.getProperty("syncBatchSize", "4"));
+                cloudSync = new CloudSyncQueue(cloudSave, Gdx.files.local("cloud_queue").file().toPath(), batchSize);
+                cloudSync.start();
             }
         } catch (IOException | NumberFormatException | GdxRuntimeException ignored) {
             cloudSave = null;
+            closeCloudSync();
         }
     }
 
-    private void loadAssets() {
-        String heroPath = "sprites/hero/hero.png";
-        heroSheet = tryLoad(heroPath);
-        if (heroSheet != null) {
-            initHeroAnimations(heroPath, heroSheet);
-        }
-
-        String playerPath = "sprites/player.png";
-        texPlayer = tryLoad(playerPath);
-        if (texPlayer != null) {
-            playerRegion = trimWholeTexture(playerPath, texPlayer);
-        }
-        texEnemy1 = tryLoad("sprites/enemy/enemy1.png");
-        if (texEnemy1 != null) {
-            enemy1Region = pickEnemyFrameAndTrim("sprites/enemy/enemy1.png", texEnemy1);
-        }
-        texEnemy2 = tryLoad("sprites/enemy/enemy2.png");
-        if (texEnemy2 != null) {
-            enemy2Region = pickEnemyFrameAndTrim("sprites/enemy/enemy2.png", texEnemy2);
-        }
-        texEnemy = tryLoad("sprites/enemy.png");
-        if (texEnemy != null) {
-            enemyRegion = pickEnemyFrameAndTrim("sprites/enemy.png", texEnemy);
-        }
+    private void closeCloudSync() {
+        if (cloudSync == null) return;
+        // Pending uploads stay on disk and are picked up again by the next queue.
+        cloudSync.close();
+        cloudSync = null;
+    }
 
-        texFood = tryLoad("sprites/food/food.png");
-        if (texFood == null) texFood = tryLoad("sprites/food.png");
-        texW1 = tryLoad("sprites/weapons/weapon1.png");
-        texW2 = tryLoad("sprites/weapons/weapon2.png");
+    private void initAutosave() {
+        if (autosave != null) autosave.close();
+        autosave = autosaveEnabled ? new AutosaveService(saveGame, autosaveFile, autosaveSlots) : null;
+    }
 
-        if (texW1 == null) texW1 = tryLoad("sprites/weapon_lv1.png");
-        if (texW2 == null) texW2 = tryLoad("sprites/weapon_lv2.png");
+    private void loadAssets() {
+        Pixmap heroPm = trimPixels(GameAssets.HERO_SHEET);
+        heroSheet = heroPm != null ? textureFrom(heroPm) : tryLoad(GameAssets.HERO_SHEET);
+        if (heroSheet != null) initHeroAnimations(heroPm, heroSheet);
+        releasePixmap(GameAssets.HERO_SHEET, heroPm);
+
+        Pixmap playerPm = trimPixels(GameAssets.PLAYER);
+        texPlayer = playerPm != null ? textureFrom(playerPm) : tryLoad(GameAssets.PLAYER);
+        if (texPlayer != null) playerRegion = trimWholeTexture(GameAssets.PLAYER, playerPm, texPlayer);
+        releasePixmap(GameAssets.PLAYER, playerPm);
+
+        Pixmap enemy1Pm = trimPixels(GameAssets.ENEMY1);
+        texEnemy1 = enemy1Pm != null ? textureFrom(enemy1Pm) : tryLoad(GameAssets.ENEMY1);
+        if (texEnemy1 != null) enemy1Region = pickEnemyFrameAndTrim(GameAssets.ENEMY1, enemy1Pm, texEnemy1);
+        releasePixmap(GameAssets.ENEMY1, enemy1Pm);
+
+        Pixmap enemy2Pm = trimPixels(GameAssets.ENEMY2);
+        texEnemy2 = enemy2Pm != null ? textureFrom(enemy2Pm) : tryLoad(GameAssets.ENEMY2);
+        if (texEnemy2 != null) enemy2Region = pickEnemyFrameAndTrim(GameAssets.ENEMY2, enemy2Pm, texEnemy2);
+        releasePixmap(GameAssets.ENEMY2, enemy2Pm);
+
+        Pixmap enemyPm = trimPixels(GameAssets.ENEMY);
+        texEnemy = enemyPm != null ? textureFrom(enemyPm) : tryLoad(GameAssets.ENEMY);
+        if (texEnemy != null) enemyRegion = pickEnemyFrameAndTrim(GameAssets.ENEMY, enemyPm, texEnemy);
+        releasePixmap(GameAssets.ENEMY, enemyPm);
+
+        texFood = tryLoadFirst(GameAssets.FOOD);
+        texW1 = tryLoadFirst(GameAssets.WEAPON1);
+        texW2 = tryLoadFirst(GameAssets.WEAPON2);
 
         useTextures = heroSheet != null || texPlayer != null || texEnemy != null || texEnemy1 != null || texEnemy2 != null || texFood != null || texW1 != null || texW2 != null;
     }
 
-    private TextureRegion pickEnemyFrameAndTrim(String internalPath, Texture texture) {
-        try {
-            Pixmap pm = new Pixmap(Gdx.files.internal(internalPath));
-
-            int w = pm.getWidth();
-            int h = pm.getHeight();
-
-            TextureRegion base;
-            if (w % 6 == 0 && h % 4 == 0) {
-                base = new TextureRegion(texture, 0, 0, w / 6, h / 4);
-            } else if (w % 3 == 0 && h % 4 == 0) {
-                base = new TextureRegion(texture, 0, 0, w / 3, h / 4);
-            } else if (w % 4 == 0 && h % 4 == 0) {
-                base = new TextureRegion(texture, 0, 0, w / 4, h / 4);
-            } else {
-                base = new TextureRegion(texture);
-            }
+    /** Pixels for the runtime trim scan; null when build-time trims cover the sprite and the texture is enough. */
+    private Pixmap trimPixels(String internalPath) {
+        return assets.trims().has(internalPath) ? null : loadPixmap(internalPath);
+    }
 
-            TextureRegion trimmed = trimRegion(pm, texture, base);
-            pm.dispose();
-            return trimmed;
+    /** Pixel data from the asset manager when it's already loaded, otherwise decoded here. */
+    private Pixmap loadPixmap(String internalPath) {
+        Pixmap managed = assets.getIfLoaded(internalPath, Pixmap.class);
+        if (managed != null) return managed;
+        try {
+            if (!Gdx.files.internal(internalPath).exists()) return null;
+            return new Pixmap(Gdx.files.internal(internalPath));
         } catch (GdxRuntimeException e) {
-            return new TextureRegion(texture);
+            return null;
         }
     }
 
+    private void releasePixmap(String internalPath, Pixmap pm) {
+        if (pm == null) return;
+        // Only needed for the upload and the trim scan.
+        if (assets.owns(pm)) assets.unload(internalPath);
+        else pm.dispose();
+    }
+
+    private Texture textureFrom(Pixmap pm) {
+        Texture t = new Texture(pm);
+        t.setFilter(TextureFilter.Nearest, TextureFilter.Nearest);
+        return t;
+    }
+
+    private TextureRegion pickEnemyFrameAndTrim(String internalPath, Pixmap pm, Texture texture) {
+        int w = texture.getWidth();
+        int h = texture.getHeight();
+
+        TextureRegion base;
+        if (w % 6 == 0 && h % 4 == 0) {
+            base = new TextureRegion(texture, 0, 0, w / 6, h / 4);
+        } else if (w % 3 == 0 && h % 4 == 0) {
+            base = new TextureRegion(texture, 0, 0, w / 3, h / 4);
+        } else if (w % 4 == 0 && h % 4 == 0) {
+            base = new TextureRegion(texture, 0, 0, w / 4, h / 4);
+        } else {
+            base = new TextureRegion(texture);
+        }
+
+        return trimRegion(internalPath, pm, texture, base);
+    }
+
     @SuppressWarnings("unchecked")
-    private void initHeroAnimations(String sheetPath, Texture sheet) {
+    private void initHeroAnimations(Pixmap pm, Texture sheet) {
         int cols = 6;
         int rows = 4;
         int frameW = sheet.getWidth() / cols;
@@ -274,15 +430,10 @@ public class GameScreen extends ScreenAdapter {
 
         TextureRegion[][] grid = TextureRegion.split(sheet, frameW, frameH);
 
-        try {
-            Pixmap pm = new Pixmap(Gdx.files.internal(sheetPath));
-            for (int r = 0; r < rows; r++) {
-                for (int c = 0; c < cols; c++) {
-                    grid[r][c] = trimRegion(pm, sheet, grid[r][c]);
-                }
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                grid[r][c] = trimRegion(GameAssets.HERO_SHEET, pm, sheet, grid[r][c]);
             }
-            pm.dispose();
-        } catch (GdxRuntimeException ignored) {
         }
 
         heroWalk = (Animation<TextureRegion>[]) new Animation[4];
@@ -305,7 +456,17 @@ public class GameScreen extends ScreenAdapter {
         };
     }
 
+    private Texture tryLoadFirst(String[] candidates) {
+        for (String path : candidates) {
+            Texture t = tryLoad(path);
+            if (t != null) return t;
+        }
+        return null;
+    }
+
     private Texture tryLoad(String internalPath) {
+        Texture managed = assets.getIfLoaded(internalPath, Texture.class);
+        if (managed != null) return managed;
         try {
             if (!Gdx.files.internal(internalPath).exists()) return null;
             Texture t = new Texture(Gdx.files.internal(internalPath));
@@ -319,21 +480,49 @@ public class GameScreen extends ScreenAdapter {
     private void loadAudio() {
         disposeAudio();
 
+        // Packaged assets only; generated fallbacks are filled in once the background synthesis is done.
         if (musicEnabled) {
+            bgm = tryLoadMusic(musicPath);
+            configureBgm();
+        }
+
+        if (sfxEnabled) {
+            sfxMixer = new SfxMixer(sfxMaxVoices);
+            hitSfx = tryLoadSound(hitSfxPath);
+            attackSfx = tryLoadSound(attackSfxPath);
+            victorySfx = tryLoadSound(victorySfxPath);
+        }
+
+        boolean missing = (musicEnabled && bgm == null)
+                || (sfxEnabled && (hitSfx == null || attackSfx == null || victorySfx == null));
+        if (!missing) return;
+
+        int generation = audioGeneration;
+        AudioBootstrap.prepareFallbacksAsync().thenRun(() -> Gdx.app.postRunnable(() -> {
+            if (generation == audioGeneration) loadFallbackAudio();
+        }));
+    }
+
+    private void loadFallbackAudio() {
+        if (musicEnabled && bgm == null) {
             bgm = tryLoadMusicWithFallback(musicPath);
-            if (bgm != null) {
-                bgm.setLooping(true);
-                bgm.setVolume(musicVolume);
-            }
+            configureBgm();
+            if (!victory) startBackgroundMusicIfEnabled();
         }
 
         if (sfxEnabled) {
-            hitSfx = tryLoadSoundWithFallback(hitSfxPath, AudioBootstrap.ensureFallbackHit());
-            attackSfx = tryLoadSoundWithFallback(attackSfxPath, AudioBootstrap.ensureFallbackAttack());
-            victorySfx = tryLoadSoundWithFallback(victorySfxPath, AudioBootstrap.ensureFallbackSuccess());
+            if (hitSfx == null) hitSfx = tryLoadSoundWithFallback(hitSfxPath, AudioBootstrap.ensureFallbackHit());
+            if (attackSfx == null) attackSfx = tryLoadSoundWithFallback(attackSfxPath, AudioBootstrap.ensureFallbackAttack());
+            if (victorySfx == null) victorySfx = tryLoadSoundWithFallback(victorySfxPath, AudioBootstrap.ensureFallbackSuccess());
         }
     }
 
+    private void configureBgm() {
+        if (bgm == null) return;
+        bgm.setLooping(true);
+        bgm.setVolume(musicVolume);
+    }
+
     private void startBackgroundMusicIfEnabled() {
         if (!musicEnabled || bgm == null) return;
         try {
@@ -345,29 +534,43 @@ public class GameScreen extends ScreenAdapter {
     }
 
     private void disposeAudio() {
+        audioGeneration++;
+        if (sfxMixer != null) {
+            sfxMixer.clear();
+            sfxMixer = null;
+        }
         if (bgm != null) {
             try {
                 bgm.stop();
             } catch (RuntimeException ignored) {
             }
-            bgm.dispose();
+            disposeIfOwned(bgm);
             bgm = null;
         }
-        if (hitSfx != null) {
-            hitSfx.dispose();
-            hitSfx = null;
-        }
-        if (attackSfx != null) {
-            attackSfx.dispose();
-            attackSfx = null;
-        }
-        if (victorySfx != null) {
-            victorySfx.dispose();
-            victorySfx = null;
-        }
+        disposeIfOwned(hitSfx);
+        hitSfx = null;
+        disposeIfOwned(attackSfx);
+        attackSfx = null;
+        disposeIfOwned(victorySfx);
+        victorySfx = null;
+    }
+
+    private void releaseMap() {
+        if (tiledMapPath == null) return;
+        assets.maps().release(tiledMapPath);
+        tiledMapPath = null;
+        tiledMap = null;
+        mapData = null;
+    }
+
+    /** Disposes resources this screen created; anything from the shared asset manager is left to it. */
+    private void disposeIfOwned(Disposable d) {
+        if (d != null && !assets.owns(d)) d.dispose();
     }
 
     private Music tryLoadMusic(String internalPath) {
+        Music managed = assets.getIfLoaded(internalPath, Music.class);
+        if (managed != null) return managed;
         try {
             if (internalPath == null || internalPath.isBlank()) return null;
             if (!Gdx.files.internal(internalPath).exists()) return null;
@@ -378,6 +581,8 @@ public class GameScreen extends ScreenAdapter {
     }
 
     private Sound tryLoadSound(String internalPath) {
+        Sound managed = assets.getIfLoaded(internalPath, Sound.class);
+        if (managed != null) return managed;
         try {
             if (internalPath == null || internalPath.isBlank()) return null;
             if (!Gdx.files.internal(internalPath).exists()) return null;
@@ -433,24 +638,16 @@ public class GameScreen extends ScreenAdapter {
         }
     }
 
+    /** New game on {@link #tmxMapPath}; the map itself is only (re)loaded when the path changed. */
     private void loadNewGameFromTmx() {
-        if (mapRenderer != null) mapRenderer.dispose();
-        if (tiledMap != null) tiledMap.dispose();
+        if (mapData == null || !tmxMapPath.equals(tiledMapPath)) loadMap();
 
-        TmxMapLoaderService.LoadedTmx loaded = new TmxMapLoaderService().load(tmxMapPath, tileSize);
-        tiledMap = loaded.tiledMap;
-        collision = loaded.collision;
+        TmxMapLoaderService.LoadedTmx loaded = new TmxMapLoaderService().spawn(mapData);
+        enemyTurn = null;
         player = loaded.player;
         enemies = loaded.enemies;
         objects = loaded.objects;
 
-        mapRenderer = new OrthogonalTiledMapRenderer(tiledMap, 1f);
-
-        Integer mapTileWidth = tiledMap.getProperties().get("tilewidth", Integer.class);
-        if (mapTileWidth != null && mapTileWidth > 0) {
-            tileSize = mapTileWidth;
-        }
-
         if (player != null) {
             player.setSize(tileSize, tileSize);
         }
@@ -465,20 +662,89 @@ public class GameScreen extends ScreenAdapter {
         victorySfxPlayed = false;
     }
 
+    private void loadMap() {
+        // Acquire before releasing so reloading the same path never drops the last reference in between.
+        TiledMap map = assets.maps().acquire(tmxMapPath);
+        TmxMapLoaderService.MapData data;
+        try {
+            data = new TmxMapLoaderService().parse(map, tileSize);
+        } catch (RuntimeException e) {
+            assets.maps().release(tmxMapPath);
+            throw e;
+        }
+
+        disposeMapRenderers();
+        releaseMap();
+        tiledMapPath = tmxMapPath;
+        tiledMap = map;
+        mapData = data;
+        collision = data.collision;
+        tileSize = data.tileSize;
+        enemyAI.setReachability(data.reachability);
+        enemyAI.setCosts(data.costs);
+        enemyAI.setLandmarks(aiLandmarks > 0
+                ? new LandmarkCache(landmarkCacheDir).loadOrCompute(tmxMapPath, data.costs, data.reachability, aiLandmarks)
+                : null);
+
+        mapRenderer = new OrthogonalTiledMapRenderer(tiledMap, 1f);
+        if (staticTileCache) staticMapRenderer = new StaticTileLayerRenderer(tiledMap, mapRenderer);
+        staticTileCheckPending = staticMapRenderer != null && staticTileCacheCheck;
+        StartupTimer.mark("mapParsed");
+    }
+
+    private void checkStaticTileCache() {
+        staticTileCheckPending = false;
+        int mismatched = staticMapRenderer.countMismatchedPixels(camera);
+        try {
+            TiledMap layerKinds = new TmxMapLoader().load(STATIC_TILE_CHECK_MAP);
+            try {
+                mismatched += StaticTileLayerRenderer.countMismatchedPixels(layerKinds);
+            } finally {
+                layerKinds.dispose();
+            }
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("TMX", "Could not load " + STATIC_TILE_CHECK_MAP + " for the static tile cache check", e);
+        }
+        if (mismatched == 0) {
+            Gdx.app.log("TMX", "Static tile cache matches the reference renderer");
+            return;
+        }
+        Gdx.app.error("TMX", "Static tile cache differs from the reference renderer in " + mismatched
+                + " pixel(s); drawing without it");
+        staticMapRenderer.dispose();
+        staticMapRenderer = null;
+    }
+
+    private void disposeMapRenderers() {
+        if (staticMapRenderer != null) staticMapRenderer.dispose();
+        staticMapRenderer = null;
+        if (mapRenderer != null) mapRenderer.dispose();
+        mapRenderer = null;
+    }
+
     @Override
     public void render(float delta) {
         movedThisFrame = false;
-        handleInput();
+        handleInput(delta);
         updateCamera();
 
         if (heroSheet != null && heroWalk != null) {
             heroAnimTime = movedThisFrame ? (heroAnimTime + delta) : 0f;
         }
+        if (!cloudInFlight && cloudStatusTime > 0f) {
+            cloudStatusTime -= delta;
+            if (cloudStatusTime <= 0f) cloudStatus = null;
+        }
 
+        if (staticTileCheckPending) checkStaticTileCache();
         ScreenUtils.clear(0.07f, 0.07f, 0.09f, 1);
 
-        mapRenderer.setView(camera);
-        mapRenderer.render();
+        if (staticMapRenderer != null) {
+            staticMapRenderer.render(camera);
+        } else {
+            mapRenderer.setView(camera);
+            mapRenderer.render();
+        }
 
         batch.setProjectionMatrix(camera.combined);
         batch.begin();
@@ -494,68 +760,88 @@ public class GameScreen extends ScreenAdapter {
         batch.setColor(Color.WHITE);
         drawHud();
         batch.end();
+
+        // Everything the turn asked for plays once, after all of it has been queued.
+        if (sfxMixer != null) sfxMixer.flush();
+    }
+
+    private void handleInput(float delta) {
+        // Only movement repeats; on the victory and game-over menus a held key would keep flipping the selection.
+        inputProcessor.setRepeatEnabled(!gameOver && !victory);
+        inputProcessor.update(delta);
+
+        long frameStart = System.nanoTime();
+        aiDeadlineNanos = frameStart + (long) (aiBudgetMs * 1_000_000L);
+        // New commands wait until the enemy phase of the previous turn has been applied.
+        if (enemyTurn != null) {
+            boolean playing = !gameOver && !victory;
+            advanceEnemyTurn();
+            dropQueuedInputIfEnded(playing);
+            if (enemyTurn != null) return;
+        }
+
+        // Several turns can run per frame, but at least one always does so a slow turn never stalls input.
+        long deadline = frameStart + (long) (turnBudgetMs * 1_000_000L);
+        Command c;
+        while ((c = commands.poll()) != null) {
+            boolean playing = !gameOver && !victory;
+            handleCommand(c);
+            dropQueuedInputIfEnded(playing);
+            if (enemyTurn != null || System.nanoTime() >= deadline) break;
+        }
+    }
+
+    // Presses queued behind the one that ended the game were meant for the old state.
+    private void dropQueuedInputIfEnded(boolean wasPlaying) {
+        if (wasPlaying && (gameOver || victory)) {
+            commands.clear();
+            inputProcessor.release();
+        }
     }
 
-    private void handleInput() {
+    private void handleCommand(Command c) {
         if (gameOver) {
-            if (Gdx.input.isKeyJustPressed(Input.Keys.R)) loadNewGameFromTmx();
+            if (c == Command.RESTART) loadNewGameFromTmx();
             return;
         }
 
         if (victory) {
-            if (Gdx.input.isKeyJustPressed(Input.Keys.UP) || Gdx.input.isKeyJustPressed(Input.Keys.W)
-                    || Gdx.input.isKeyJustPressed(Input.Keys.DOWN) || Gdx.input.isKeyJustPressed(Input.Keys.S)) {
-                victoryMenuIndex = (victoryMenuIndex + 1) % 2;
-            }
-
-            if (Gdx.input.isKeyJustPressed(Input.Keys.R)) {
-                loadNewGameFromTmx();
-                startBackgroundMusicIfEnabled();
-                return;
-            }
-            if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
-                Gdx.app.exit();
-                return;
-            }
-
-            if (Gdx.input.isKeyJustPressed(Input.Keys.ENTER)) {
-                if (victoryMenuIndex == 0) {
+            switch (c) {
+                case MOVE_UP, MOVE_DOWN -> victoryMenuIndex = (victoryMenuIndex + 1) % 2;
+                case RESTART -> {
                     loadNewGameFromTmx();
                     startBackgroundMusicIfEnabled();
-                } else {
-                    Gdx.app.exit();
                 }
+                case QUIT -> Gdx.app.exit();
+                case CONFIRM -> {
+                    if (victoryMenuIndex == 0) {
+                        loadNewGameFromTmx();
+                        startBackgroundMusicIfEnabled();
+                    } else {
+                        Gdx.app.exit();
+                    }
+                }
+                default -> {}
             }
             return;
         }
 
-        if (Gdx.input.isKeyJustPressed(Input.Keys.ENTER)) {
-            player.inventory().useFirstFood(player);
-        }
-        if (Gdx.input.isKeyJustPressed(Input.Keys.NUM_1)) {
-            player.inventory().equipWeaponLevel(1);
-        }
-        if (Gdx.input.isKeyJustPressed(Input.Keys.NUM_2)) {
-            player.inventory().equipWeaponLevel(2);
+        switch (c) {
+            case CONFIRM -> player.inventory().useFirstFood(player);
+            case EQUIP_WEAPON_1 -> player.inventory().equipWeaponLevel(1);
+            case EQUIP_WEAPON_2 -> player.inventory().equipWeaponLevel(2);
+            case SAVE_LOCAL -> saveLocal();
+            case LOAD_LOCAL -> loadLocal();
+            case CLOUD_UPLOAD -> uploadCloud();
+            case CLOUD_DOWNLOAD -> downloadCloud();
+            case CLOUD_LIST -> listCloudSlots();
+            case TOGGLE_DEBUG -> debugCollision = !debugCollision;
+            case MOVE_UP -> attemptMovePlayer(Direction.UP);
+            case MOVE_DOWN -> attemptMovePlayer(Direction.DOWN);
+            case MOVE_LEFT -> attemptMovePlayer(Direction.LEFT);
+            case MOVE_RIGHT -> attemptMovePlayer(Direction.RIGHT);
+            default -> {}
         }
-
-        if (Gdx.input.isKeyJustPressed(Input.Keys.F5)) saveLocal();
-        if (Gdx.input.isKeyJustPressed(Input.Keys.F9)) loadLocal();
-
-        if (Gdx.input.isKeyJustPressed(Input.Keys.F6)) uploadCloud();
-        if (Gdx.input.isKeyJustPressed(Input.Keys.F10)) downloadCloud();
-
-        if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
-            debugCollision = !debugCollision;
-        }
-
-        Direction dir = null;
-        if (Gdx.input.isKeyJustPressed(Input.Keys.W) || Gdx.input.isKeyJustPressed(Input.Keys.UP)) dir = Direction.UP;
-        if (Gdx.input.isKeyJustPressed(Input.Keys.S) || Gdx.input.isKeyJustPressed(Input.Keys.DOWN)) dir = Direction.DOWN;
-        if (Gdx.input.isKeyJustPressed(Input.Keys.A) || Gdx.input.isKeyJustPressed(Input.Keys.LEFT)) dir = Direction.LEFT;
-        if (Gdx.input.isKeyJustPressed(Input.Keys.D) || Gdx.input.isKeyJustPressed(Input.Keys.RIGHT)) dir = Direction.RIGHT;
-
-        if (dir != null) attemptMovePlayer(dir);
     }
 
     private void attemptMovePlayer(Direction dir) {
@@ -603,15 +889,35 @@ public class GameScreen extends ScreenAdapter {
     }
 
     private void endTurn(boolean alreadyDamagedThisTurn, boolean allowAdjacentAttackThisTurn) {
-        enemyAI.moveEnemiesAfterPlayer(collision, enemies, player.x(), player.y());
+        enemyTurn = enemyAI.beginTurn(collision, enemies, player.x(), player.y());
+        enemyTurnAlreadyDamaged = alreadyDamagedThisTurn;
+        enemyTurnAllowsAdjacentAttack = allowAdjacentAttackThisTurn;
+        advanceEnemyTurn();
+    }
+
+    /** Plans enemies until this frame's AI deadline; once all are planned, applies the turn and its aftermath. */
+    private void advanceEnemyTurn() {
+        if (!enemyTurn.step(aiDeadlineNanos)) return;
+        enemyTurn.commit();
+        enemyTurn = null;
 
-        if (allowAdjacentAttackThisTurn && !alreadyDamagedThisTurn) {
+        if (enemyTurnAllowsAdjacentAttack && !enemyTurnAlreadyDamaged) {
             resolveAdjacentEnemyAttacks();
         }
         resolveCombatIfAny();
 
         // The player might have killed the last enemy during resolveCombatIfAny.
         triggerVictoryIfAllEnemiesKilled();
+
+        autosaveIfDue();
+        if (player.isDead()) gameOver = true;
+    }
+
+    private void autosaveIfDue() {
+        if (autosave == null || victory || player.isDead()) return;
+        if (stats.steps <= 0 || stats.steps % autosaveEveryTurns != 0) return;
+        // Only the snapshot is built here; serialization and file I/O happen on the writer thread.
+        autosave.submit(SaveGameService.buildState(tmxMapPath, player, enemies, objects, stats));
     }
 
     private void resolveAdjacentEnemyAttacks() {
@@ -630,19 +936,11 @@ public class GameScreen extends ScreenAdapter {
     private void applyEnemyHit(int amount) {
         if (amount <= 0) return;
         player.damage(amount);
-        if (!sfxEnabled || hitSfx == null) return;
-        try {
-            hitSfx.play(sfxVolume);
-        } catch (GdxRuntimeException ignored) {
-        }
+        if (sfxMixer != null) sfxMixer.request(hitSfx, sfxVolume);
     }
 
     private void playAttackSfx() {
-        if (!sfxEnabled || attackSfx == null) return;
-        try {
-            attackSfx.play(attackSfxVolume);
-        } catch (GdxRuntimeException ignored) {
-        }
+        if (sfxMixer != null) sfxMixer.request(attackSfx, attackSfxVolume);
     }
 
     private void triggerVictoryIfAllEnemiesKilled() {
@@ -661,13 +959,10 @@ public class GameScreen extends ScreenAdapter {
     }
 
     private void playVictorySfxOnce() {
-        if (!sfxEnabled || victorySfx == null) return;
+        if (sfxMixer == null || victorySfx == null) return;
         if (victorySfxPlayed) return;
-        try {
-            victorySfx.play(victorySfxVolume);
-            victorySfxPlayed = true;
-        } catch (GdxRuntimeException ignored) {
-        }
+        sfxMixer.request(victorySfx, victorySfxVolume);
+        victorySfxPlayed = true;
     }
 
     private Enemy findEnemyAt(int x, int y) {
@@ -711,12 +1006,25 @@ public class GameScreen extends ScreenAdapter {
 
     @Override
     public void hide() {
+        if (Gdx.input.getInputProcessor() == inputProcessor) Gdx.input.setInputProcessor(null);
+        if (inputProcessor != null) inputProcessor.release();
+        commands.clear();
+        // Drop fallback audio that finishes while hidden; show() reloads the audio and asks for it again.
+        audioGeneration++;
         if (bgm != null) {
             try {
                 bgm.stop();
             } catch (RuntimeException ignored) {
             }
         }
+        if (autosave != null) {
+            autosave.close();
+            autosave = null;
+        }
+        closeCloudSync();
+        cloudGeneration++;
+        cloudInFlight = false;
+        cloudStatus = null;
     }
 
     private boolean inBounds(int x, int y) {
@@ -790,19 +1098,17 @@ public class GameScreen extends ScreenAdapter {
         }
     }
 
-    private TextureRegion trimWholeTexture(String internalPath, Texture texture) {
-        try {
-            Pixmap pm = new Pixmap(Gdx.files.internal(internalPath));
-            TextureRegion full = new TextureRegion(texture, 0, 0, pm.getWidth(), pm.getHeight());
-            TextureRegion trimmed = trimRegion(pm, texture, full);
-            pm.dispose();
-            return trimmed;
-        } catch (GdxRuntimeException e) {
-            return new TextureRegion(texture);
-        }
+    private TextureRegion trimWholeTexture(String internalPath, Pixmap pm, Texture texture) {
+        TextureRegion full = new TextureRegion(texture, 0, 0, texture.getWidth(), texture.getHeight());
+        return trimRegion(internalPath, pm, texture, full);
     }
 
-    private TextureRegion trimRegion(Pixmap pm, Texture texture, TextureRegion base) {
+    /** Build-time trim when available, otherwise an alpha scan of {@code pm} (untrimmed if there are no pixels). */
+    private TextureRegion trimRegion(String internalPath, Pixmap pm, Texture texture, TextureRegion base) {
+        TextureRegion precomputed = assets.trims().trim(internalPath, texture, base);
+        if (precomputed != null) return precomputed;
+        if (pm == null) return base;
+
         int srcX = base.getRegionX();
         int srcY = base.getRegionY();
         int srcW = base.getRegionWidth();
@@ -851,7 +1157,7 @@ public class GameScreen extends ScreenAdapter {
     }
 
     private void drawHud() {
-        font.getData().setScale(1.4f);
+        BitmapFont font = hudFont(1.4f, FontCache.Style.SEMIBOLD);
         font.setColor(Color.BLACK);
 
         String weaponText = player.inventory().equippedWeapon()
@@ -865,6 +1171,10 @@ public class GameScreen extends ScreenAdapter {
                 "Enemies defeated: " + stats.enemiesDefeated,
                 "Items collected: " + stats.itemsCollected,
         };
+        if (cloudStatus != null) {
+            lines = java.util.Arrays.copyOf(lines, lines.length + 1);
+            lines[lines.length - 1] = "Cloud: " + cloudStatus;
+        }
 
         float padding = 18f;
         float lineGap = 10f;
@@ -909,7 +1219,7 @@ public class GameScreen extends ScreenAdapter {
 
         drawInventoryPanel();
         if (gameOver) {
-            font.getData().setScale(1.6f);
+            font = hudFont(1.6f, FontCache.Style.SEMIBOLD);
             font.setColor(Color.RED);
             drawSemibold(font, "GAME OVER - Press R to restart", 220, 360);
         }
@@ -918,11 +1228,11 @@ public class GameScreen extends ScreenAdapter {
             float x = 220f;
             float y2 = 420f;
 
-            font.getData().setScale(1.7f);
+            font = hudFont(1.7f, FontCache.Style.SEMIBOLD);
             font.setColor(Color.GREEN);
             drawSemibold(font, "Success all the enemies killed!", x, y2);
 
-            font.getData().setScale(1.35f);
+            font = hudFont(1.35f, FontCache.Style.SEMIBOLD);
             font.setColor(Color.BLACK);
 
             String restart = (victoryMenuIndex == 0) ? "> Restart" : "  Restart";
@@ -961,9 +1271,6 @@ public class GameScreen extends ScreenAdapter {
         int foodStartSlot = hasWeapon ? 1 : 0;
         int remainingFood = foodCount;
 
-        float prevScaleX = font.getData().scaleX;
-        float prevScaleY = font.getData().scaleY;
-
         for (int i = 0; i < 3; i++) {
             float slotX = firstSlotX + i * (slot + gap);
 
@@ -992,7 +1299,7 @@ public class GameScreen extends ScreenAdapter {
                     batch.draw(texFood, slotX + pad, slotY + pad, slot - 2 * pad, slot - 2 * pad);
                 }
 
-                font.getData().setScale(1.25f);
+                BitmapFont font = hudFont(1.25f, FontCache.Style.OUTLINED);
                 String countText = "x" + inThisSlot;
                 glyphLayout.setText(font, countText);
                 float inset = 8f;
@@ -1002,13 +1309,29 @@ public class GameScreen extends ScreenAdapter {
             }
         }
 
-        font.getData().setScale(prevScaleX, prevScaleY);
-
         batch.setColor(prev);
     }
 
+    /**
+     * The font for a HUD string at the given scale of the default font: a FreeType font with the style baked in when
+     * a TTF is configured, otherwise the default font scaled (and drawn multi-pass by the draw helpers).
+     */
+    private BitmapFont hudFont(float scale, FontCache.Style style) {
+        FontCache fonts = assets.fonts();
+        if (fonts.available()) return fonts.get(scale, style);
+        font.getData().setScale(scale);
+        return font;
+    }
+
     private void drawOutlined(BitmapFont font, String text, float x, float y, Color fill, Color outline) {
         Color prev = font.getColor();
+        if (font != this.font) {
+            // Outline is baked into the glyphs.
+            font.setColor(fill);
+            font.draw(batch, text, x, y);
+            font.setColor(prev);
+            return;
+        }
 
         font.setColor(outline);
         font.draw(batch, text, x - 1f, y);
@@ -1028,7 +1351,7 @@ public class GameScreen extends ScreenAdapter {
     }
 
     private void drawSemibold(BitmapFont font, String text, float x, float y) {
-        font.draw(batch, text, x + 1f, y);
+        if (font == this.font) font.draw(batch, text, x + 1f, y);
         font.draw(batch, text, x, y);
     }
 
@@ -1046,6 +1369,7 @@ public class GameScreen extends ScreenAdapter {
             loadNewGameFromTmx();
         }
 
+        enemyTurn = null;
         player = new Player(s.playerX, s.playerY, 10);
         if (s.playerHp < 10) player.damage(10 - s.playerHp);
         player.setSize(tileSize, tileSize);
@@ -1066,6 +1390,7 @@ public class GameScreen extends ScreenAdapter {
                 enemies.add(new Enemy(se.x, se.y, new com.citysurvival.core.model.items.Weapon("Enemy Weapon L" + se.weaponLevel, se.weaponLevel), kind));
             }
         }
+        enemyAI.enemiesChanged();
 
         if (objects == null) objects = new java.util.ArrayList<>();
         objects.clear();
@@ -1084,6 +1409,11 @@ public class GameScreen extends ScreenAdapter {
         stats.itemsCollected = s.itemsCollected;
 
         gameOver = player.isDead();
+        // Loading over the victory screen resumes play in the loaded world.
+        if (victory) startBackgroundMusicIfEnabled();
+        victory = false;
+        victoryMenuIndex = 0;
+        victorySfxPlayed = false;
     }
 
     private void loadLocal() {
@@ -1102,14 +1432,52 @@ public class GameScreen extends ScreenAdapter {
             Gdx.app.log("CLOUD", "Supabase not configured. Add desktop/src/main/resources/supabase.properties");
             return;
         }
+        if (cloudInFlight) {
+            Gdx.app.log("CLOUD", "Cloud request already in progress.");
+            return;
+        }
+        byte[] json;
         try {
             SaveGameService.SaveState state = SaveGameService.buildState(tmxMapPath, player, enemies, objects, stats);
-            String json = saveGame.toJson(state);
-            cloudSave.uploadSave(cloudPlayerId, cloudSlot, json);
-            Gdx.app.log("CLOUD", "Uploaded save to Supabase.");
-        } catch (IOException | RuntimeException e) {
+            json = saveGame.toJsonBytes(state);
+        } catch (RuntimeException e) {
             Gdx.app.error("CLOUD", "Upload failed: " + e.getMessage(), e);
+            return;
+        }
+
+        if (cloudSync != null && cloudSync.hasPending(cloudPlayerId, cloudSlot)) {
+            // An older save for this slot is still queued; replace it rather than racing it.
+            cloudSync.enqueue(cloudPlayerId, cloudSlot, new String(json, StandardCharsets.UTF_8));
+            cloudSync.retryNow();
+            setCloudStatus("queued (" + cloudSync.pendingCount() + " pending)", false);
+            return;
         }
+
+        setCloudStatus("uploading...", true);
+        int generation = cloudGeneration;
+        cloudSave.uploadSaveAsync(cloudPlayerId, cloudSlot, json).whenComplete((uploaded, err) -> Gdx.app.postRunnable(() -> {
+            if (cloudResultStale(generation)) return;
+            if (err != null) {
+                Throwable cause = unwrap(err);
+                // A rejected save would only be rejected again; queue just the ones that may get through later.
+                if (cloudSync != null && !SupabaseException.isPermanent(cause)) {
+                    Gdx.app.log("CLOUD", "Upload failed (" + cause.getMessage() + "); queued for retry.");
+                    cloudSync.enqueue(cloudPlayerId, cloudSlot, new String(json, StandardCharsets.UTF_8));
+                    setCloudStatus("offline, queued", false);
+                    return;
+                }
+                Gdx.app.error("CLOUD", "Upload failed: " + cause.getMessage(), cause);
+                setCloudStatus("upload failed", false);
+                return;
+            }
+            if (!uploaded) {
+                Gdx.app.log("CLOUD", "Save unchanged since last upload; skipped.");
+                setCloudStatus("up to date", false);
+                return;
+            }
+            Gdx.app.log("CLOUD", "Uploaded save to Supabase.");
+            setCloudStatus("uploaded", false);
+        }));
     }
 
     private void downloadCloud() {
@@ -1117,36 +1485,106 @@ public class GameScreen extends ScreenAdapter {
             Gdx.app.log("CLOUD", "Supabase not configured. Add desktop/src/main/resources/supabase.properties");
             return;
         }
-        try {
-            String json = cloudSave.downloadSaveJson(cloudPlayerId, cloudSlot);
-            if (json == null) {
+        if (cloudInFlight) {
+            Gdx.app.log("CLOUD", "Cloud request already in progress.");
+            return;
+        }
+
+        setCloudStatus("downloading...", true);
+        int generation = cloudGeneration;
+        // The save is decoded on the HTTP thread straight from the response; only applying it needs the GL thread.
+        cloudSave.downloadSaveAsync(cloudPlayerId, cloudSlot).whenComplete((result, err) -> Gdx.app.postRunnable(() -> {
+            if (cloudResultStale(generation)) return;
+            if (err != null) {
+                Throwable cause = unwrap(err);
+                Gdx.app.error("CLOUD", "Download failed: " + cause.getMessage(), cause);
+                setCloudStatus("download failed", false);
+                return;
+            }
+            if (result.state == null) {
                 Gdx.app.log("CLOUD", "No cloud save found.");
+                setCloudStatus("no cloud save", false);
+                return;
+            }
+            applyLoadedState(result.state);
+            Gdx.app.log("CLOUD", result.unchanged ? "Cloud save unchanged; reloaded cached copy." : "Downloaded and loaded cloud save.");
+            setCloudStatus("downloaded", false);
+        }));
+    }
+
+    private void listCloudSlots() {
+        if (cloudSave == null) {
+            Gdx.app.log("CLOUD", "Supabase not configured. Add desktop/src/main/resources/supabase.properties");
+            return;
+        }
+        if (cloudInFlight) {
+            Gdx.app.log("CLOUD", "Cloud request already in progress.");
+            return;
+        }
+
+        setCloudStatus("listing slots...", true);
+        int generation = cloudGeneration;
+        cloudSave.listSavesAsync(cloudPlayerId).whenComplete((slots, err) -> Gdx.app.postRunnable(() -> {
+            if (cloudResultStale(generation)) return;
+            if (err != null) {
+                Throwable cause = unwrap(err);
+                Gdx.app.error("CLOUD", "Listing slots failed: " + cause.getMessage(), cause);
+                setCloudStatus("listing failed", false);
+                return;
+            }
+            if (slots.isEmpty()) {
+                setCloudStatus("no cloud saves", false);
                 return;
             }
-            SaveGameService.SaveState s = saveGame.fromJson(json);
+            StringBuilder sb = new StringBuilder();
+            for (CloudSaveService.SaveSlotInfo info : slots) {
+                Gdx.app.log("CLOUD", "Slot " + info.slot + ": map=" + info.mapPath + ", hp=" + info.playerHp + ", steps=" + info.steps
+                        + ", enemiesDefeated=" + info.enemiesDefeated + ", itemsCollected=" + info.itemsCollected);
+                if (sb.length() > 0) sb.append(", ");
+                sb.append('#').append(info.slot).append(info.slot == cloudSlot ? "*" : "").append(' ').append(info.steps).append(" steps");
+            }
+            setCloudStatus(sb.toString(), false);
+        }));
+    }
 
-            applyLoadedState(s);
-            Gdx.app.log("CLOUD", "Downloaded and loaded cloud save.");
-        } catch (IOException | RuntimeException e) {
-            Gdx.app.error("CLOUD", "Download failed: " + e.getMessage(), e);
+    // True when the screen was hidden or disposed since the request started; its result must not touch the screen.
+    private boolean cloudResultStale(int generation) {
+        return disposed || generation != cloudGeneration;
+    }
+
+    private void setCloudStatus(String status, boolean inFlight) {
+        cloudStatus = status;
+        cloudInFlight = inFlight;
+        cloudStatusTime = inFlight ? 0f : 3f;
+        // The report walks every histogram; only build it when it will actually be logged.
+        if (!inFlight && Gdx.app.getLogLevel() >= Application.LOG_DEBUG) {
+            Gdx.app.debug("CLOUD", "HTTP metrics:\n" + SupabaseHttp.metrics().report());
         }
     }
 
+    private static Throwable unwrap(Throwable t) {
+        return (t instanceof java.util.concurrent.CompletionException && t.getCause() != null) ? t.getCause() : t;
+    }
+
     @Override
     public void dispose() {
+        disposed = true;
+        cloudGeneration++;
         batch.dispose();
         font.dispose();
-        if (mapRenderer != null) mapRenderer.dispose();
-        if (tiledMap != null) tiledMap.dispose();
+        disposeMapRenderers();
+        releaseMap();
         if (debugPixel != null) debugPixel.dispose();
+        if (autosave != null) autosave.close();
+        closeCloudSync();
         disposeAudio();
-        if (texPlayer != null) texPlayer.dispose();
-        if (heroSheet != null) heroSheet.dispose();
-        if (texEnemy != null) texEnemy.dispose();
-        if (texEnemy1 != null) texEnemy1.dispose();
-        if (texEnemy2 != null) texEnemy2.dispose();
-        if (texFood != null) texFood.dispose();
-        if (texW1 != null) texW1.dispose();
-        if (texW2 != null) texW2.dispose();
+        disposeIfOwned(texPlayer);
+        disposeIfOwned(heroSheet);
+        disposeIfOwned(texEnemy);
+        disposeIfOwned(texEnemy1);
+        disposeIfOwned(texEnemy2);
+        disposeIfOwned(texFood);
+        disposeIfOwned(texW1);
+        disposeIfOwned(texW2);
     }
 }
@@ -13,23 +13,40 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.maps.tiled.TiledMap;
-import com.badlogic.gdx.maps.tiled.TmxMapLoader;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.ScreenUtils;
 import com.citysurvival.core.CitySurvivalGame;
+import com.citysurvival.core.StartupTimer;
+import com.citysurvival.core.io.GameAssets;
+import com.citysurvival.core.render.FontCache;
 
 public class MainMenuScreen extends ScreenAdapter {
+    // Per-frame budget for advancing the background asset loading.
+    private static final int LOAD_BUDGET_MS = 8;
+
     private final CitySurvivalGame game;
+    private final GameAssets assets;
 
     private final SpriteBatch batch = new SpriteBatch();
     private final BitmapFont font = new BitmapFont();
     private final OrthographicCamera camera = new OrthographicCamera();
     private final OrthographicCamera hudCamera = new OrthographicCamera();
+    private final GlyphLayout layout = new GlyphLayout();
 
     private Texture pixel;
 
+    // Everything static (map view, dim, title, controls and, once loading is done, the button) baked into one
+    // texture; re-baked only on resize, when the map appears and when loading finishes.
+    private FrameBuffer backdrop;
+    private TextureRegion backdropRegion;
+    private boolean backdropDirty = true;
+    private boolean backdropHasButton = false;
+    private boolean backdropUnsupported = false;
+
     private TiledMap tiledMap;
     private OrthogonalTiledMapRenderer mapRenderer;
 
@@ -43,22 +60,19 @@ public class MainMenuScreen extends ScreenAdapter {
 
     private final float leftMargin = 70f;
 
+    // Set when New Game is clicked before loading finished; the game starts as soon as it does.
+    private boolean startRequested = false;
+
     public MainMenuScreen(CitySurvivalGame game) {
         this.game = game;
+        this.assets = game.assets();
     }
 
     @Override
     public void show() {
         loadGameProperties();
         ensurePixel();
-
-        try {
-            tiledMap = new TmxMapLoader().load(tmxMapPath);
-            mapRenderer = new OrthogonalTiledMapRenderer(tiledMap, 1f);
-        } catch (GdxRuntimeException e) {
-            tiledMap = null;
-            mapRenderer = null;
-        }
+        attachMapIfLoaded();
 
         camera.setToOrtho(false, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
         camera.zoom = cameraZoom;
@@ -69,6 +83,7 @@ public class MainMenuScreen extends ScreenAdapter {
         hudCamera.update();
 
         layoutButton();
+        backdropDirty = true;
 
         font.getData().setScale(2.2f);
         font.setColor(Color.WHITE);
@@ -84,6 +99,18 @@ public class MainMenuScreen extends ScreenAdapter {
         }
     }
 
+    /** The background map comes from the shared map cache and appears once it has been loaded. */
+    private void attachMapIfLoaded() {
+        if (tiledMap != null) return;
+        tiledMap = assets.maps().acquireIfLoaded(tmxMapPath);
+        if (tiledMap == null) return;
+
+        mapRenderer = new OrthogonalTiledMapRenderer(tiledMap, 1f);
+        centerCameraOnMap();
+        camera.update();
+        backdropDirty = true;
+    }
+
     private void ensurePixel() {
         if (pixel != null) return;
         Pixmap pm = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
@@ -134,12 +161,30 @@ public class MainMenuScreen extends ScreenAdapter {
         hudCamera.update();
 
         layoutButton();
+        backdropDirty = true;
     }
 
     @Override
     public void render(float delta) {
         ScreenUtils.clear(0.07f, 0.07f, 0.09f, 1f);
 
+        boolean loaded;
+        try {
+            loaded = assets.update(LOAD_BUDGET_MS);
+        } catch (GdxRuntimeException e) {
+            // Whatever failed is loaded synchronously (or skipped) by the game screen instead.
+            Gdx.app.error("ASSETS", "Background loading failed", e);
+            loaded = true;
+        }
+        attachMapIfLoaded();
+        if (loaded) StartupTimer.mark("assetsLoaded");
+
+        if (startRequested && loaded) {
+            StartupTimer.complete();
+            game.setScreen(new GameScreen(game));
+            return;
+        }
+
         if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
             Gdx.app.exit();
             return;
@@ -149,11 +194,65 @@ public class MainMenuScreen extends ScreenAdapter {
             float x = Gdx.input.getX();
             float y = Gdx.graphics.getHeight() - Gdx.input.getY();
             if (x >= buttonX && x <= buttonX + buttonW && y >= buttonY && y <= buttonY + buttonH) {
-                game.setScreen(new GameScreen());
-                return;
+                if (loaded) {
+                    game.setScreen(new GameScreen(game));
+                    return;
+                }
+                startRequested = true;
             }
         }
 
+        if (loaded && !backdropHasButton) backdropDirty = true;
+        if (backdropDirty) bakeBackdrop(loaded);
+
+        if (backdropRegion == null) {
+            drawScene(true, loaded);
+        } else {
+            batch.setProjectionMatrix(hudCamera.combined);
+            batch.begin();
+            // Opaque copy; blending would fade it by the alpha the FBO accumulated.
+            batch.disableBlending();
+            batch.setColor(Color.WHITE);
+            batch.draw(backdropRegion, 0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+            batch.enableBlending();
+            if (!backdropHasButton) drawButton(loaded);
+            batch.end();
+        }
+
+        StartupTimer.mark("firstFrame");
+        if (loaded) StartupTimer.complete();
+    }
+
+    private void bakeBackdrop(boolean loaded) {
+        backdropDirty = false;
+        if (backdropUnsupported) return;
+
+        int w = Gdx.graphics.getBackBufferWidth();
+        int h = Gdx.graphics.getBackBufferHeight();
+        if (w <= 0 || h <= 0) return;
+
+        try {
+            if (backdrop == null || backdrop.getWidth() != w || backdrop.getHeight() != h) {
+                disposeBackdrop();
+                backdrop = new FrameBuffer(Pixmap.Format.RGBA8888, w, h, false);
+                backdropRegion = new TextureRegion(backdrop.getColorBufferTexture());
+                backdropRegion.flip(false, true);
+            }
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("MENU", "Frame buffer not available, drawing the menu directly", e);
+            backdropUnsupported = true;
+            disposeBackdrop();
+            return;
+        }
+
+        backdrop.begin();
+        ScreenUtils.clear(0.07f, 0.07f, 0.09f, 1f);
+        drawScene(loaded, loaded);
+        backdrop.end();
+        backdropHasButton = loaded;
+    }
+
+    private void drawScene(boolean withButton, boolean loaded) {
         if (mapRenderer != null && tiledMap != null) {
             mapRenderer.setView(camera);
             mapRenderer.render();
@@ -169,18 +268,20 @@ public class MainMenuScreen extends ScreenAdapter {
         batch.setColor(prev);
 
         drawTitle();
-        drawButton();
+        if (withButton) drawButton(loaded);
         drawControls();
 
         batch.end();
     }
 
-    private void drawControls() {
-        float prevScaleX = font.getData().scaleX;
-        float prevScaleY = font.getData().scaleY;
-        font.getData().setScale(1.25f);
-        font.setColor(Color.WHITE);
+    private void disposeBackdrop() {
+        if (backdrop != null) backdrop.dispose();
+        backdrop = null;
+        backdropRegion = null;
+        backdropHasButton = false;
+    }
 
+    private void drawControls() {
         float x = leftMargin;
         float y = buttonY - 30f;
         float gap = 30f;
@@ -191,20 +292,14 @@ public class MainMenuScreen extends ScreenAdapter {
                 "Use Food: Enter",
                 "Equip Weapon: 1 / 2",
                 "Save: F5    Load: F9",
-                "Upload: F6  Download: F10",
+                "Upload: F6  Download: F10  Slots: F7",
                 "Collision Debug: F3",
                 "Quit: ESC",
         };
 
         for (int i = 0; i < lines.length; i++) {
-            font.setColor(0f, 0f, 0f, 0.75f);
-            font.draw(batch, lines[i], x + 2f, (y - i * gap) - 2f);
-            font.setColor(Color.WHITE);
-            font.draw(batch, lines[i], x + 1f, y - i * gap);
-            font.draw(batch, lines[i], x, y - i * gap);
+            drawShadowed(lines[i], 1.25f, x, y - i * gap, Color.WHITE);
         }
-
-        font.getData().setScale(prevScaleX, prevScaleY);
     }
 
     private void drawTitle() {
@@ -212,14 +307,10 @@ public class MainMenuScreen extends ScreenAdapter {
         float x = leftMargin;
         float y = Gdx.graphics.getHeight() - 90f;
 
-        font.setColor(0f, 0f, 0f, 0.75f);
-        font.draw(batch, title, x + 2f, y - 2f);
-        font.setColor(Color.WHITE);
-        font.draw(batch, title, x + 1f, y);
-        font.draw(batch, title, x, y);
+        drawShadowed(title, 2.2f, x, y, Color.WHITE);
     }
 
-    private void drawButton() {
+    private void drawButton(boolean loaded) {
         Color prev = batch.getColor();
         batch.setColor(1f, 1f, 1f, 0.85f);
         batch.draw(pixel, buttonX, buttonY, buttonW, buttonH);
@@ -229,18 +320,56 @@ public class MainMenuScreen extends ScreenAdapter {
         batch.draw(pixel, buttonX, buttonY + buttonH - 2f, buttonW, 2f);
         batch.draw(pixel, buttonX, buttonY, 2f, buttonH);
         batch.draw(pixel, buttonX + buttonW - 2f, buttonY, 2f, buttonH);
+
+        if (!loaded) {
+            // Loading progress along the bottom edge of the button.
+            batch.setColor(0.2f, 0.6f, 0.25f, 0.9f);
+            batch.draw(pixel, buttonX + 2f, buttonY + 2f, (buttonW - 4f) * assets.progress(), 6f);
+        }
         batch.setColor(prev);
 
-        String label = "NEW GAME";
-        GlyphLayout layout = new GlyphLayout(font, label);
+        String label = loaded ? "NEW GAME" : "LOADING " + Math.round(assets.progress() * 100f) + "%";
+        layout.setText(menuFont(2.2f), label);
         float tx = buttonX + (buttonW - layout.width) / 2f;
         float ty = buttonY + (buttonH + layout.height) / 2f + 6f;
 
-        font.setColor(0f, 0f, 0f, 0.85f);
-        font.draw(batch, label, tx + 2f, ty - 2f);
-        font.setColor(Color.BLACK);
-        font.draw(batch, label, tx + 1f, ty);
-        font.draw(batch, label, tx, ty);
+        drawShadowed(label, 2.2f, tx, ty, Color.BLACK);
+    }
+
+    /** FreeType font with the shadow baked in when a TTF is configured, else the default font at that scale. */
+    private BitmapFont menuFont(float scale) {
+        FontCache fonts = assets.fonts();
+        if (fonts.available()) return fonts.get(scale, FontCache.Style.SHADOWED);
+        font.getData().setScale(scale);
+        return font;
+    }
+
+    private void drawShadowed(String text, float scale, float x, float y, Color color) {
+        BitmapFont f = menuFont(scale);
+        if (f != font) {
+            f.setColor(color);
+            f.draw(batch, text, x, y);
+            return;
+        }
+        // Shadow plus faux-bold second pass.
+        font.setColor(0f, 0f, 0f, 0.75f);
+        font.draw(batch, text, x + 2f, y - 2f);
+        font.setColor(color);
+        font.draw(batch, text, x + 1f, y);
+        font.draw(batch, text, x, y);
+    }
+
+    @Override
+    public void hide() {
+        releaseMap();
+        disposeBackdrop();
+    }
+
+    private void releaseMap() {
+        if (mapRenderer != null) mapRenderer.dispose();
+        mapRenderer = null;
+        if (tiledMap != null) assets.maps().release(tmxMapPath);
+        tiledMap = null;
     }
 
     @Override
@@ -248,7 +377,7 @@ public class MainMenuScreen extends ScreenAdapter {
         batch.dispose();
         font.dispose();
         if (pixel != null) pixel.dispose();
-        if (mapRenderer != null) mapRenderer.dispose();
-        if (tiledMap != null) tiledMap.dispose();
+        releaseMap();
+        disposeBackdrop();
     }
 }
@@ -1,36 +1,321 @@
 package com.citysurvival.core.supabase;
 
+import com.citysurvival.core.io.SaveGameService;
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.HashingSource;
+import okio.Okio;
 
 public class CloudSaveService {
     private final SupabaseClient client;
     private final Gson gson = new Gson();
 
+    // Keyed by playerId + "#" + slot.
+    private final Map<String, String> uploadedHashes = new ConcurrentHashMap<>();
+    private final Map<String, CachedDownload> downloads = new ConcurrentHashMap<>();
+
     public CloudSaveService(SupabaseClient client) {
         this.client = client;
     }
 
-    public void uploadSave(String playerId, int slot, String saveJson) throws IOException {
-        JsonObject row = new JsonObject();
-        row.addProperty("player_id", playerId);
-        row.addProperty("slot", slot);
-        row.add("save_json", gson.fromJson(saveJson, com.google.gson.JsonElement.class));
+    public boolean uploadSave(String playerId, int slot, String saveJson) throws IOException {
+        return uploadSave(playerId, slot, saveJson.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Uploads an already-serialized (UTF-8) save; the bytes are written into the request as-is, never re-parsed.
+     *
+     * @return false when the upsert was skipped because this exact save was the last one uploaded to the slot
+     */
+    public boolean uploadSave(String playerId, int slot, byte[] saveJson) throws IOException {
+        String key = key(playerId, slot);
+        String hash = sha256(saveJson);
+        if (hash.equals(uploadedHashes.get(key))) return false;
+
+        client.upsert("game_save", rowBody(playerId, slot, saveJson));
+        uploadedHashes.put(key, hash);
+        return true;
+    }
+
+    /**
+     * Upserts several slots of one player with a single request (a JSON array of rows). Slots whose save is unchanged
+     * since their last upload are left out.
+     *
+     * @return the number of slots actually sent
+     */
+    public int uploadSaves(String playerId, Map<Integer, byte[]> savesBySlot) throws IOException {
+        Map<Integer, String> changed = changedSlots(playerId, savesBySlot);
+        if (changed.isEmpty()) return 0;
+
+        client.upsert("game_save", rowsBody(playerId, savesBySlot, changed.keySet()));
+        changed.forEach((slot, hash) -> uploadedHashes.put(key(playerId, slot), hash));
+        return changed.size();
+    }
+
+    /** Non-blocking {@link #uploadSaves}. */
+    public CompletableFuture<Integer> uploadSavesAsync(String playerId, Map<Integer, byte[]> savesBySlot) {
+        Map<Integer, String> changed = changedSlots(playerId, savesBySlot);
+        if (changed.isEmpty()) return CompletableFuture.completedFuture(0);
+
+        return client.upsertAsync("game_save", rowsBody(playerId, savesBySlot, changed.keySet())).thenApply(resp -> {
+            changed.forEach((slot, hash) -> uploadedHashes.put(key(playerId, slot), hash));
+            return changed.size();
+        });
+    }
+
+    /** Metadata for every cloud slot of a player in one select; the save bodies themselves are not transferred. */
+    public List<SaveSlotInfo> listSaves(String playerId) throws IOException {
+        return parseSlotInfos(client.select("game_save", listQuery(playerId)));
+    }
+
+    /** Non-blocking {@link #listSaves}. */
+    public CompletableFuture<List<SaveSlotInfo>> listSavesAsync(String playerId) {
+        return client.selectAsync("game_save", listQuery(playerId)).thenApply(this::parseSlotInfos);
+    }
+
+    /** Field names match the column aliases in {@link #listQuery}. */
+    public static final class SaveSlotInfo {
+        public int slot;
+        public String mapPath;
+        public int playerHp;
+        public int steps;
+        public int enemiesDefeated;
+        public int itemsCollected;
+    }
+
+    /** Returns null when there is no cloud save for the slot. */
+    public SaveGameService.SaveState downloadSave(String playerId, int slot) throws IOException {
+        String key = key(playerId, slot);
+        CachedDownload cached = downloads.get(key);
+        SupabaseClient.ConditionalResponse<ParsedSave> resp =
+                client.selectIfNoneMatch("game_save", saveQuery(playerId, slot), cached != null ? cached.etag : null, this::parseSave);
+        return toDownloadResult(key, cached, resp).state;
+    }
+
+    /** Non-blocking {@link #uploadSave(String, int, byte[])}; the future completes on an HTTP dispatcher thread. */
+    public CompletableFuture<Boolean> uploadSaveAsync(String playerId, int slot, byte[] saveJson) {
+        String key = key(playerId, slot);
+        String hash = sha256(saveJson);
+        if (hash.equals(uploadedHashes.get(key))) return CompletableFuture.completedFuture(false);
+
+        return client.upsertAsync("game_save", rowBody(playerId, slot, saveJson)).thenApply(resp -> {
+            uploadedHashes.put(key, hash);
+            return true;
+        });
+    }
+
+    /**
+     * Non-blocking download, decoded straight from the response stream into a {@link SaveGameService.SaveState}.
+     * Uses the ETag of the previous download of the same slot (if the server sent one) so an unchanged cloud save
+     * isn't transferred or parsed again; the previously decoded state is returned instead.
+     */
+    public CompletableFuture<DownloadResult> downloadSaveAsync(String playerId, int slot) {
+        String key = key(playerId, slot);
+        CachedDownload cached = downloads.get(key);
+        return client.selectIfNoneMatchAsync("game_save", saveQuery(playerId, slot), cached != null ? cached.etag : null, this::parseSave)
+                .thenApply(resp -> toDownloadResult(key, cached, resp));
+    }
+
+    public static final class DownloadResult {
+        /** Null when there is no cloud save for the slot. Shared with later unchanged downloads; treat as read-only. */
+        public final SaveGameService.SaveState state;
+        /** True when the content is identical to the previous download of this slot. */
+        public final boolean unchanged;
+
+        DownloadResult(SaveGameService.SaveState state, boolean unchanged) {
+            this.state = state;
+            this.unchanged = unchanged;
+        }
+    }
+
+    private static final class CachedDownload {
+        final String etag;
+        final SaveGameService.SaveState state;
+        final String hash;
 
-        client.upsert("game_save", gson.toJson(row));
+        CachedDownload(String etag, SaveGameService.SaveState state, String hash) {
+            this.etag = etag;
+            this.state = state;
+            this.hash = hash;
+        }
     }
 
-    public String downloadSaveJson(String playerId, int slot) throws IOException {
-        String q = "?player_id=eq." + playerId + "&slot=eq." + slot + "&select=save_json&limit=1";
-        String resp = client.select("game_save", q);
+    private static final class ParsedSave {
+        final SaveGameService.SaveState state;
+        final String bodyHash;
 
-        JsonArray arr = gson.fromJson(resp, JsonArray.class);
-        if (arr == null || arr.size() == 0) return null;
+        ParsedSave(SaveGameService.SaveState state, String bodyHash) {
+            this.state = state;
+            this.bodyHash = bodyHash;
+        }
+    }
+
+    private DownloadResult toDownloadResult(String key, CachedDownload cached, SupabaseClient.ConditionalResponse<ParsedSave> resp) {
+        if (resp.notModified && cached != null) return new DownloadResult(cached.state, true);
+
+        ParsedSave parsed = resp.body;
+        if (parsed == null || parsed.state == null) {
+            downloads.remove(key);
+            return new DownloadResult(null, false);
+        }
+
+        // Servers that don't send ETags still let us tell the caller nothing changed.
+        if (cached != null && parsed.bodyHash.equals(cached.hash)) {
+            downloads.put(key, new CachedDownload(resp.etag, cached.state, cached.hash));
+            return new DownloadResult(cached.state, true);
+        }
+        downloads.put(key, new CachedDownload(resp.etag, parsed.state, parsed.bodyHash));
+        return new DownloadResult(parsed.state, false);
+    }
+
+    /** Writes {"player_id":..,"slot":..,"save_json":<saveJson>} without copying the save into a String. */
+    private RequestBody rowBody(String playerId, int slot, byte[] saveJson) {
+        byte[] prefix = rowPrefix(playerId, slot);
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return SupabaseClient.JSON;
+            }
+
+            @Override
+            public long contentLength() {
+                return prefix.length + saveJson.length + 1L;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                sink.write(prefix);
+                sink.write(saveJson);
+                sink.writeByte('}');
+            }
+        };
+    }
+
+    /** Slots in the given order; hashes of saves that differ from the last uploaded version of that slot. */
+    private Map<Integer, String> changedSlots(String playerId, Map<Integer, byte[]> savesBySlot) {
+        Map<Integer, String> changed = new LinkedHashMap<>();
+        for (Map.Entry<Integer, byte[]> e : savesBySlot.entrySet()) {
+            String hash = sha256(e.getValue());
+            if (!hash.equals(uploadedHashes.get(key(playerId, e.getKey())))) changed.put(e.getKey(), hash);
+        }
+        return changed;
+    }
+
+    /** Writes [row,row,...] for the given slots, streaming each save's bytes like {@link #rowBody}. */
+    private RequestBody rowsBody(String playerId, Map<Integer, byte[]> savesBySlot, Collection<Integer> slots) {
+        byte[][] prefixes = new byte[slots.size()][];
+        byte[][] saves = new byte[slots.size()][];
+        long length = 2L; // [ ]
+        int i = 0;
+        for (int slot : slots) {
+            prefixes[i] = rowPrefix(playerId, slot);
+            saves[i] = savesBySlot.get(slot);
+            length += prefixes[i].length + saves[i].length + 1L + (i > 0 ? 1L : 0L);
+            i++;
+        }
+        long contentLength = length;
+
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return SupabaseClient.JSON;
+            }
+
+            @Override
+            public long contentLength() {
+                return contentLength;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                sink.writeByte('[');
+                for (int j = 0; j < prefixes.length; j++) {
+                    if (j > 0) sink.writeByte(',');
+                    sink.write(prefixes[j]);
+                    sink.write(saves[j]);
+                    sink.writeByte('}');
+                }
+                sink.writeByte(']');
+            }
+        };
+    }
+
+    private byte[] rowPrefix(String playerId, int slot) {
+        return ("{\"player_id\":" + gson.toJson(playerId) + ",\"slot\":" + slot + ",\"save_json\":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String listQuery(String playerId) {
+        // PostgREST JSON path selects pull a few fields out of save_json server-side.
+        return "?player_id=eq." + playerId
+                + "&select=slot,mapPath:save_json->>mapPath,playerHp:save_json->playerHp,steps:save_json->steps"
+                + ",enemiesDefeated:save_json->enemiesDefeated,itemsCollected:save_json->itemsCollected"
+                + "&order=slot.asc";
+    }
+
+    private List<SaveSlotInfo> parseSlotInfos(String resp) {
+        SaveSlotInfo[] rows = gson.fromJson(resp, SaveSlotInfo[].class);
+        return rows == null ? List.of() : List.of(rows);
+    }
+
+    private static String saveQuery(String playerId, int slot) {
+        return "?player_id=eq." + playerId + "&slot=eq." + slot + "&select=save_json&limit=1";
+    }
+
+    /** Single pass over [{"save_json":{...}}]: decodes the save directly and hashes the raw bytes on the way. */
+    private ParsedSave parseSave(ResponseBody body) throws IOException {
+        HashingSource hashing = HashingSource.sha256(body.source());
+        try (BufferedSource source = Okio.buffer(hashing)) {
+            SaveGameService.SaveState state = null;
+            JsonReader reader = new JsonReader(new InputStreamReader(source.inputStream(), StandardCharsets.UTF_8));
+            reader.beginArray();
+            if (reader.hasNext()) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("save_json".equals(reader.nextName()) && reader.peek() != JsonToken.NULL) {
+                        state = gson.fromJson(reader, SaveGameService.SaveState.class);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+            // Drain the rest so the hash covers the whole body.
+            source.readAll(Okio.blackhole());
+            return new ParsedSave(state, hashing.hash().hex());
+        }
+    }
+
+    private static String key(String playerId, int slot) {
+        return playerId + "#" + slot;
+    }
 
-        JsonObject row = arr.get(0).getAsJsonObject();
-        return row.get("save_json").toString();
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) sb.append(Character.forDigit((b >>> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
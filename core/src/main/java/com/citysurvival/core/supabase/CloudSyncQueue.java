@@ -0,0 +1,298 @@
+package com.citysurvival.core.supabase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.badlogic.gdx.Gdx;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Persistent outbound queue for cloud saves that couldn't be uploaded (offline, server down, ...).
+ *
+ * Each pending upload is stored as one file per (player, slot) under {@code dir}, so queueing a newer save for the
+ * same slot simply replaces the older one. A single background thread drains the queue in batches (one upsert
+ * request per player) and backs off exponentially while the service is unreachable. Uploads the server rejects
+ * for good are moved aside to {@code dir/rejected/} instead of being retried.
+ *
+ * Only plain java.nio is used for storage, so the queue also works outside a running libGDX app (e.g. against a
+ * local stand-in HTTP server).
+ */
+public class CloudSyncQueue {
+    private static final String TAG = "CLOUD";
+
+    private static final long DEFAULT_MIN_BACKOFF_MS = 2_000L;
+    private static final long MAX_BACKOFF_MS = 5 * 60_000L;
+
+    private final CloudSaveService cloud;
+    private final Path dir;
+    private final int batchSize;
+    private final long minBackoffMs;
+    private final Gson gson = new Gson();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "cloud-sync");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Guarded by this. Insertion order == age, so batches go out oldest first.
+    private final Map<String, PendingUpload> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledDrain;
+    private long backoffMs = 0L;
+
+    public CloudSyncQueue(CloudSaveService cloud, Path dir, int batchSize) {
+        this(cloud, dir, batchSize, DEFAULT_MIN_BACKOFF_MS);
+    }
+
+    /** {@code minBackoffMs} is the first retry delay after a failed drain; it doubles up to five minutes. */
+    public CloudSyncQueue(CloudSaveService cloud, Path dir, int batchSize, long minBackoffMs) {
+        this.cloud = cloud;
+        this.dir = dir;
+        this.batchSize = Math.max(1, batchSize);
+        this.minBackoffMs = Math.max(1L, Math.min(MAX_BACKOFF_MS, minBackoffMs));
+    }
+
+    /** Loads uploads left over from previous runs and starts draining them. */
+    public void start() {
+        List<PendingUpload> restored = new ArrayList<>();
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.json")) {
+                for (Path f : files) {
+                    try {
+                        PendingUpload p = gson.fromJson(Files.readString(f, StandardCharsets.UTF_8), PendingUpload.class);
+                        if (p != null && p.playerId != null && p.saveJson != null) restored.add(p);
+                    } catch (IOException | JsonParseException e) {
+                        log("Dropping unreadable queued upload " + f.getFileName() + ": " + e.getMessage());
+                        deleteQuietly(f);
+                    }
+                }
+            } catch (IOException e) {
+                log("Could not read sync queue " + dir + ": " + e.getMessage());
+            }
+        }
+        restored.sort(Comparator.comparingLong(p -> p.queuedAtMillis));
+
+        synchronized (this) {
+            for (PendingUpload p : restored) pending.putIfAbsent(key(p.playerId, p.slot), p);
+            if (!pending.isEmpty()) {
+                log("Restored " + pending.size() + " queued cloud upload(s).");
+                scheduleDrain(0L);
+            }
+        }
+    }
+
+    /** Queues a save for later upload, replacing any older pending save for the same slot. */
+    public void enqueue(String playerId, int slot, String saveJson) {
+        PendingUpload p = new PendingUpload();
+        p.playerId = playerId;
+        p.slot = slot;
+        p.saveJson = saveJson;
+        p.queuedAtMillis = System.currentTimeMillis();
+
+        synchronized (this) {
+            String key = key(playerId, slot);
+            // Re-insert so the coalesced entry takes the age of the newest save.
+            pending.remove(key);
+            pending.put(key, p);
+            persist(key, p);
+            if (backoffMs == 0L) scheduleDrain(0L);
+        }
+    }
+
+    public synchronized boolean hasPending(String playerId, int slot) {
+        return pending.containsKey(key(playerId, slot));
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /** Delay before the next retry after failed drains; 0 while the last drain went through (or none ran yet). */
+    public synchronized long backoffMillis() {
+        return backoffMs;
+    }
+
+    /** Tries to drain right away, skipping any current backoff delay. */
+    public synchronized void retryNow() {
+        backoffMs = 0L;
+        scheduleDrain(0L);
+    }
+
+    /**
+     * Uploads up to one batch synchronously on the calling thread. Entries the server rejects outright (a 4xx other
+     * than 408/429, or a save that can't be encoded) are parked under {@code rejected/} so they don't block the queue.
+     *
+     * @return true when the batch went through (the queue may still hold more), false when the service was unreachable
+     */
+    public boolean drainBatch() {
+        List<PendingUpload> batch;
+        synchronized (this) {
+            batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            for (PendingUpload p : pending.values()) {
+                if (batch.size() >= batchSize) break;
+                batch.add(p);
+            }
+        }
+
+        // One upsert request per player; the slots are unique per player thanks to coalescing.
+        Map<String, List<PendingUpload>> byPlayer = new LinkedHashMap<>();
+        for (PendingUpload p : batch) byPlayer.computeIfAbsent(p.playerId, k -> new ArrayList<>()).add(p);
+
+        for (Map.Entry<String, List<PendingUpload>> e : byPlayer.entrySet()) {
+            if (!upload(e.getKey(), e.getValue())) return false;
+        }
+        return true;
+    }
+
+    // False only when the service is unreachable; rejected entries are parked and count as handled.
+    private boolean upload(String playerId, List<PendingUpload> entries) {
+        String rejection;
+        try {
+            Map<Integer, byte[]> savesBySlot = new LinkedHashMap<>();
+            for (PendingUpload p : entries) savesBySlot.put(p.slot, p.saveJson.getBytes(StandardCharsets.UTF_8));
+            cloud.uploadSaves(playerId, savesBySlot);
+            for (PendingUpload p : entries) complete(p);
+            return true;
+        } catch (IOException ex) {
+            if (!SupabaseException.isPermanent(ex)) {
+                log("Cloud still unreachable (" + ex.getMessage() + "); " + pendingCount() + " upload(s) queued.");
+                return false;
+            }
+            rejection = ex.getMessage();
+        } catch (RuntimeException ex) {
+            rejection = ex.toString();
+        }
+        if (entries.size() == 1) {
+            park(entries.get(0), rejection);
+            return true;
+        }
+        // The whole multi-slot upsert was rejected; send the slots one by one to find the bad ones.
+        for (PendingUpload p : entries) {
+            if (!upload(playerId, List.of(p))) return false;
+        }
+        return true;
+    }
+
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void drainLoop() {
+        boolean ok = false;
+        try {
+            ok = drainBatch();
+        } catch (RuntimeException e) {
+            log("Cloud sync drain failed: " + e);
+        } finally {
+            // Always clear the handle, or every later scheduleDrain() would think a drain is still on its way.
+            synchronized (this) {
+                scheduledDrain = null;
+                if (!ok) {
+                    backoffMs = backoffMs == 0L ? minBackoffMs : Math.min(MAX_BACKOFF_MS, backoffMs * 2L);
+                    scheduleDrain(backoffMs);
+                } else {
+                    backoffMs = 0L;
+                    if (!pending.isEmpty()) scheduleDrain(0L);
+                }
+            }
+        }
+    }
+
+    // Caller holds the lock.
+    private void scheduleDrain(long delayMs) {
+        if (pending.isEmpty() || scheduler.isShutdown()) return;
+        if (scheduledDrain != null) {
+            if (scheduledDrain.getDelay(TimeUnit.MILLISECONDS) <= delayMs) return;
+            if (!scheduledDrain.cancel(false)) return;
+        }
+        scheduledDrain = scheduler.schedule(this::drainLoop, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void complete(PendingUpload p) {
+        String key = key(p.playerId, p.slot);
+        // A newer save for the same slot may have been queued while this one was in flight; keep that one.
+        if (pending.get(key) != p) return;
+        pending.remove(key);
+        deleteQuietly(fileFor(key));
+    }
+
+    // Takes a rejected entry out of the queue, keeping its file under rejected/ for inspection.
+    private synchronized void park(PendingUpload p, String reason) {
+        String key = key(p.playerId, p.slot);
+        if (pending.get(key) != p) return;
+        pending.remove(key);
+        Path file = fileFor(key);
+        Path parked = dir.resolve("rejected").resolve(file.getFileName());
+        try {
+            Files.createDirectories(parked.getParent());
+            Files.move(file, parked, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(file);
+            parked = null;
+        }
+        log("Cloud rejected queued upload for slot " + p.slot + " (" + reason + "); "
+                + (parked != null ? "parked as " + parked : "dropped it") + ".");
+    }
+
+    private void persist(String key, PendingUpload p) {
+        Path target = fileFor(key);
+        try {
+            Files.createDirectories(dir);
+            Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            Files.writeString(tmp, gson.toJson(p), StandardCharsets.UTF_8);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Still queued in memory; it just won't survive a restart.
+            log("Could not persist queued upload " + target.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    private Path fileFor(String key) {
+        // Hex-encode so arbitrary player ids are safe as file names.
+        StringBuilder sb = new StringBuilder();
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            sb.append(Character.forDigit((b >>> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return dir.resolve(sb + ".json");
+    }
+
+    private static String key(String playerId, int slot) {
+        return playerId + "#" + slot;
+    }
+
+    private static void deleteQuietly(Path f) {
+        try {
+            Files.deleteIfExists(f);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void log(String msg) {
+        try {
+            Gdx.app.log(TAG, msg);
+        } catch (RuntimeException ignored) {
+            // No libGDX app running (tools/tests).
+        }
+    }
+
+    private static class PendingUpload {
+        String playerId;
+        int slot;
+        String saveJson;
+        long queuedAtMillis;
+    }
+}
@@ -1,7 +1,10 @@
 package com.citysurvival.core.supabase;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -10,54 +13,166 @@ import okhttp3.Response;
 import okhttp3.ResponseBody;
 
 public class SupabaseClient {
-    private final OkHttpClient http = new OkHttpClient();
+    public static final MediaType JSON = MediaType.parse("application/json");
+
+    private final OkHttpClient http;
     private final String url;
     private final String apiKey;
 
     public SupabaseClient(String url, String apiKey) {
+        this(url, apiKey, SupabaseHttp.shared());
+    }
+
+    public SupabaseClient(String url, String apiKey, OkHttpClient http) {
         this.url = url;
         this.apiKey = apiKey;
+        this.http = http;
     }
 
     public String upsert(String table, String jsonBody) throws IOException {
+        return upsert(table, RequestBody.create(jsonBody, JSON));
+    }
+
+    /** Upsert with a caller-supplied body, e.g. one that streams pre-serialized JSON without building a String. */
+    public String upsert(String table, RequestBody jsonBody) throws IOException {
+        try (Response resp = http.newCall(upsertRequest(table, jsonBody)).execute()) {
+            return readBody(resp);
+        }
+    }
+
+    public String select(String table, String queryString) throws IOException {
+        try (Response resp = http.newCall(selectRequest(table, queryString)).execute()) {
+            return readBody(resp);
+        }
+    }
+
+    /**
+     * GET with {@code If-None-Match}: when {@code etag} is non-null and the server still has the same representation,
+     * it answers 304 and no body is transferred. Otherwise the body is handed to {@code parser} as a stream.
+     */
+    public <T> ConditionalResponse<T> selectIfNoneMatch(String table, String queryString, String etag, BodyParser<T> parser) throws IOException {
+        try (Response resp = http.newCall(conditionalSelectRequest(table, queryString, etag)).execute()) {
+            return readConditional(resp, parser);
+        }
+    }
+
+    /** Same as {@link #upsert} but runs on OkHttp's dispatcher threads; the future completes off the caller's thread. */
+    public CompletableFuture<String> upsertAsync(String table, String jsonBody) {
+        return upsertAsync(table, RequestBody.create(jsonBody, JSON));
+    }
+
+    /** Non-blocking {@link #upsert(String, RequestBody)}. */
+    public CompletableFuture<String> upsertAsync(String table, RequestBody jsonBody) {
+        return enqueue(upsertRequest(table, jsonBody));
+    }
+
+    /** Same as {@link #select} but runs on OkHttp's dispatcher threads; the future completes off the caller's thread. */
+    public CompletableFuture<String> selectAsync(String table, String queryString) {
+        return enqueue(selectRequest(table, queryString));
+    }
+
+    /** Non-blocking {@link #selectIfNoneMatch}; {@code parser} runs on the HTTP dispatcher thread. */
+    public <T> CompletableFuture<ConditionalResponse<T>> selectIfNoneMatchAsync(String table, String queryString, String etag, BodyParser<T> parser) {
+        return enqueue(conditionalSelectRequest(table, queryString, etag), resp -> readConditional(resp, parser));
+    }
+
+    /** Decodes a successful response body straight from the network stream. */
+    public interface BodyParser<T> {
+        T parse(ResponseBody body) throws IOException;
+    }
+
+    public static final class ConditionalResponse<T> {
+        public final boolean notModified;
+        /** Null when {@link #notModified}. */
+        public final T body;
+        /** Null when the server doesn't send one; conditional requests are then simply never short-circuited. */
+        public final String etag;
+
+        ConditionalResponse(boolean notModified, T body, String etag) {
+            this.notModified = notModified;
+            this.body = body;
+            this.etag = etag;
+        }
+    }
+
+    private Request upsertRequest(String table, RequestBody jsonBody) {
         String endpoint = url + "/rest/v1/" + table;
 
-        Request request = new Request.Builder()
+        return new Request.Builder()
                 .url(endpoint)
                 .addHeader("apikey", apiKey)
                 .addHeader("Authorization", "Bearer " + apiKey)
                 .addHeader("Content-Type", "application/json")
                 .addHeader("Prefer", "resolution=merge-duplicates,return=representation")
-                .post(RequestBody.create(jsonBody, MediaType.parse("application/json")))
+                .post(jsonBody)
                 .build();
-
-        try (Response resp = http.newCall(request).execute()) {
-            ResponseBody body = resp.body();
-            String bodyString = body != null ? body.string() : "";
-            if (!resp.isSuccessful()) {
-                throw new IOException("Supabase error " + resp.code() + ": " + bodyString);
-            }
-            return bodyString;
-        }
     }
 
-    public String select(String table, String queryString) throws IOException {
+    private Request selectRequest(String table, String queryString) {
         String endpoint = url + "/rest/v1/" + table + (queryString == null ? "" : queryString);
 
-        Request request = new Request.Builder()
+        return new Request.Builder()
                 .url(endpoint)
                 .addHeader("apikey", apiKey)
                 .addHeader("Authorization", "Bearer " + apiKey)
                 .get()
                 .build();
+    }
 
-        try (Response resp = http.newCall(request).execute()) {
-            ResponseBody body = resp.body();
-            String bodyString = body != null ? body.string() : "";
-            if (!resp.isSuccessful()) {
-                throw new IOException("Supabase error " + resp.code() + ": " + bodyString);
+    private Request conditionalSelectRequest(String table, String queryString, String etag) {
+        Request request = selectRequest(table, queryString);
+        if (etag == null) return request;
+        return request.newBuilder().header("If-None-Match", etag).build();
+    }
+
+    private interface ResponseReader<T> {
+        T read(Response resp) throws IOException;
+    }
+
+    private CompletableFuture<String> enqueue(Request request) {
+        return enqueue(request, SupabaseClient::readBody);
+    }
+
+    private <T> CompletableFuture<T> enqueue(Request request, ResponseReader<T> reader) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Call call = http.newCall(request);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call c, IOException e) {
+                future.completeExceptionally(e);
             }
-            return bodyString;
+
+            @Override
+            public void onResponse(Call c, Response resp) {
+                try (resp) {
+                    future.complete(reader.read(resp));
+                } catch (IOException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        // Cancelling the future aborts the HTTP call as well.
+        future.whenComplete((r, e) -> {
+            if (future.isCancelled()) call.cancel();
+        });
+        return future;
+    }
+
+    private static <T> ConditionalResponse<T> readConditional(Response resp, BodyParser<T> parser) throws IOException {
+        if (resp.code() == 304) return new ConditionalResponse<>(true, null, resp.header("ETag"));
+        // readBody throws with the server's error message.
+        if (!resp.isSuccessful()) readBody(resp);
+        ResponseBody body = resp.body();
+        if (body == null) throw new IOException("Supabase returned an empty response");
+        return new ConditionalResponse<>(false, parser.parse(body), resp.header("ETag"));
+    }
+
+    private static String readBody(Response resp) throws IOException {
+        ResponseBody body = resp.body();
+        String bodyString = body != null ? body.string() : "";
+        if (!resp.isSuccessful()) {
+            throw new SupabaseException(resp.code(), "Supabase error " + resp.code() + ": " + bodyString);
         }
+        return bodyString;
     }
 }
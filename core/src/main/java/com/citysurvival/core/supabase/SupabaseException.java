@@ -0,0 +1,30 @@
+package com.citysurvival.core.supabase;
+
+import java.io.IOException;
+
+/** An HTTP error answer from Supabase, as opposed to a transport failure (no connection, timeout, ...). */
+public class SupabaseException extends IOException {
+    private final int statusCode;
+
+    public SupabaseException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+
+    /**
+     * True for 4xx answers other than 408 (timeout) and 429 (rate limited): the request itself was rejected (bad row,
+     * RLS denial, payload too large, ...), so sending it again unchanged will fail the same way.
+     */
+    public boolean isPermanent() {
+        return statusCode >= 400 && statusCode < 500 && statusCode != 408 && statusCode != 429;
+    }
+
+    /** Whether {@code e} is a {@link SupabaseException} that {@link #isPermanent() won't succeed on retry}. */
+    public static boolean isPermanent(Throwable e) {
+        return e instanceof SupabaseException se && se.isPermanent();
+    }
+}
@@ -0,0 +1,109 @@
+package com.citysurvival.core.supabase;
+
+import java.io.IOException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * The one OkHttpClient shared by every {@link SupabaseClient}, so all cloud calls reuse the same connection pool,
+ * dispatcher threads and metrics.
+ *
+ * Response gzip is handled transparently by OkHttp (it sends Accept-Encoding: gzip and decompresses). Request bodies
+ * can additionally be gzipped per client, for servers that accept Content-Encoding: gzip.
+ */
+public final class SupabaseHttp {
+    private static final SupabaseMetrics METRICS = new SupabaseMetrics();
+
+    private static volatile OkHttpClient shared;
+
+    private SupabaseHttp() {
+    }
+
+    public static SupabaseMetrics metrics() {
+        return METRICS;
+    }
+
+    public static OkHttpClient shared() {
+        OkHttpClient c = shared;
+        if (c != null) return c;
+        synchronized (SupabaseHttp.class) {
+            if (shared == null) shared = build();
+            return shared;
+        }
+    }
+
+    /** Derived client sharing the pool/dispatcher of {@link #shared()} that gzips request bodies. */
+    public static OkHttpClient gzipRequests() {
+        return shared().newBuilder().addInterceptor(new GzipRequestInterceptor()).build();
+    }
+
+    private static OkHttpClient build() {
+        // Daemon threads: in-flight cloud calls must never keep the JVM alive after the game window closes.
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread t = new Thread(r, "supabase-http");
+            t.setDaemon(true);
+            return t;
+        });
+        Dispatcher dispatcher = new Dispatcher(executor);
+        dispatcher.setMaxRequestsPerHost(4);
+
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                // A game talks to a single host; a few warm connections are plenty.
+                .connectionPool(new ConnectionPool(4, 5, TimeUnit.MINUTES))
+                .connectTimeout(5, TimeUnit.SECONDS)
+                .writeTimeout(15, TimeUnit.SECONDS)
+                .readTimeout(15, TimeUnit.SECONDS)
+                .callTimeout(30, TimeUnit.SECONDS)
+                .eventListenerFactory(METRICS)
+                .build();
+    }
+
+    private static final class GzipRequestInterceptor implements Interceptor {
+        @Override
+        public okhttp3.Response intercept(Chain chain) throws IOException {
+            Request original = chain.request();
+            RequestBody body = original.body();
+            if (body == null || original.header("Content-Encoding") != null) return chain.proceed(original);
+
+            Request compressed = original.newBuilder()
+                    .header("Content-Encoding", "gzip")
+                    .method(original.method(), gzip(body))
+                    .build();
+            return chain.proceed(compressed);
+        }
+
+        private static RequestBody gzip(RequestBody body) {
+            return new RequestBody() {
+                @Override
+                public MediaType contentType() {
+                    return body.contentType();
+                }
+
+                @Override
+                public long contentLength() {
+                    return -1; // unknown until compressed
+                }
+
+                @Override
+                public void writeTo(BufferedSink sink) throws IOException {
+                    try (BufferedSink gzipSink = Okio.buffer(new GzipSink(sink))) {
+                        body.writeTo(gzipSink);
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.citysurvival.core.supabase;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Per-endpoint call statistics collected from OkHttp events: latency histogram, bytes in/out, failures (I/O errors and
+ * non-2xx answers other than 304) and whether each call had to open a new connection or reused a pooled one.
+ *
+ * Endpoints are keyed by method and table, e.g. "POST game_save".
+ */
+public class SupabaseMetrics implements EventListener.Factory {
+    /** Upper bounds (inclusive, ms) of the latency buckets; a final overflow bucket catches everything slower. */
+    static final long[] LATENCY_BUCKETS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private final Map<String, EndpointStats> endpoints = new TreeMap<>();
+
+    @Override
+    public EventListener create(Call call) {
+        return new CallListener(endpointKey(call));
+    }
+
+    /** Copies of the current stats, sorted by endpoint. */
+    public synchronized Map<String, EndpointStats> snapshot() {
+        Map<String, EndpointStats> copy = new TreeMap<>();
+        endpoints.forEach((k, v) -> copy.put(k, v.copy()));
+        return copy;
+    }
+
+    public synchronized void reset() {
+        endpoints.clear();
+    }
+
+    /** Multi-line human-readable summary, one line per endpoint. */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        snapshot().forEach((k, s) -> sb.append(k).append(": ").append(s).append('\n'));
+        return sb.toString();
+    }
+
+    public static final class EndpointStats {
+        public long calls;
+        public long failures;
+        public long newConnections;
+        public long reusedConnections;
+        public long bytesSent;
+        public long bytesReceived;
+        public long totalNanos;
+        public long maxNanos;
+        public final long[] latencyBuckets = new long[LATENCY_BUCKETS_MS.length + 1];
+
+        public double meanMillis() {
+            return calls == 0 ? 0.0 : totalNanos / 1e6 / calls;
+        }
+
+        /** Upper bound of the bucket containing the given percentile (0..100); -1 if it falls into the overflow bucket. */
+        public long percentileMillis(double percentile) {
+            long rank = (long) Math.ceil(calls * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < latencyBuckets.length; i++) {
+                seen += latencyBuckets[i];
+                if (seen >= rank && seen > 0) return i < LATENCY_BUCKETS_MS.length ? LATENCY_BUCKETS_MS[i] : -1;
+            }
+            return 0;
+        }
+
+        EndpointStats copy() {
+            EndpointStats c = new EndpointStats();
+            c.calls = calls;
+            c.failures = failures;
+            c.newConnections = newConnections;
+            c.reusedConnections = reusedConnections;
+            c.bytesSent = bytesSent;
+            c.bytesReceived = bytesReceived;
+            c.totalNanos = totalNanos;
+            c.maxNanos = maxNanos;
+            System.arraycopy(latencyBuckets, 0, c.latencyBuckets, 0, latencyBuckets.length);
+            return c;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "calls=%d failures=%d mean=%.2fms p50<=%dms p99<=%dms max=%.2fms sent=%dB received=%dB connections new=%d reused=%d",
+                    calls, failures, meanMillis(), percentileMillis(50), percentileMillis(99), maxNanos / 1e6,
+                    bytesSent, bytesReceived, newConnections, reusedConnections);
+        }
+    }
+
+    private synchronized void record(String key, CallListener l, boolean failed) {
+        EndpointStats s = endpoints.computeIfAbsent(key, k -> new EndpointStats());
+        long nanos = System.nanoTime() - l.startNanos;
+        s.calls++;
+        if (failed) s.failures++;
+        if (l.connectionAcquired) {
+            if (l.connected) s.newConnections++;
+            else s.reusedConnections++;
+        }
+        s.bytesSent += l.bytesSent;
+        s.bytesReceived += l.bytesReceived;
+        s.totalNanos += nanos;
+        s.maxNanos = Math.max(s.maxNanos, nanos);
+
+        long millis = nanos / 1_000_000L;
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKETS_MS.length && millis > LATENCY_BUCKETS_MS[bucket]) bucket++;
+        s.latencyBuckets[bucket]++;
+    }
+
+    private static String endpointKey(Call call) {
+        List<String> segments = call.request().url().pathSegments();
+        String table = segments.isEmpty() ? "/" : segments.get(segments.size() - 1);
+        return call.request().method() + " " + table;
+    }
+
+    /** One instance per call, so no synchronization is needed until the result is recorded. */
+    private final class CallListener extends EventListener {
+        private final String key;
+        private long startNanos;
+        private boolean connected;
+        private boolean connectionAcquired;
+        private long bytesSent;
+        private long bytesReceived;
+        private boolean httpError;
+
+        CallListener(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void callStart(Call call) {
+            startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+            connected = true;
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            connectionAcquired = true;
+        }
+
+        @Override
+        public void requestHeadersEnd(Call call, Request request) {
+            bytesSent += request.headers().byteCount();
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            bytesSent += byteCount;
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            bytesReceived += response.headers().byteCount();
+            httpError = !response.isSuccessful() && response.code() != 304;
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            bytesReceived += byteCount;
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            record(key, this, httpError);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            record(key, this, true);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.citysurvival.core.input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import com.badlogic.gdx.Input;
+
+/** Key repeat of {@link GameInputProcessor}, driven by hand instead of by frames. */
+class GameInputProcessorTest {
+    private final CommandQueue queue = new CommandQueue(8);
+    private final GameInputProcessor input = new GameInputProcessor(KeyBindings.defaults(), queue, 0.2f, 0.1f);
+
+    @Test
+    void heldMoveRepeatsAfterTheDelay() {
+        input.keyDown(Input.Keys.UP);
+        assertEquals(Command.MOVE_UP, queue.poll());
+        input.update(0.1f);
+        assertNull(queue.poll());
+        input.update(0.15f);
+        assertEquals(Command.MOVE_UP, queue.poll());
+        input.keyUp(Input.Keys.UP);
+        input.update(1f);
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void heldKeyDoesNotRepeatWhileRepeatIsOff() {
+        input.setRepeatEnabled(false);
+        input.keyDown(Input.Keys.UP);
+        assertEquals(Command.MOVE_UP, queue.poll());
+        input.update(1f);
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void turningRepeatOffStopsTheKeyHeldNow() {
+        input.keyDown(Input.Keys.DOWN);
+        assertEquals(Command.MOVE_DOWN, queue.poll());
+        input.setRepeatEnabled(false);
+        input.update(1f);
+        assertNull(queue.poll());
+        // Back in play the key has to be pressed again to repeat.
+        input.setRepeatEnabled(true);
+        input.update(1f);
+        assertNull(queue.poll());
+    }
+}
@@ -0,0 +1,208 @@
+package com.citysurvival.core.logic;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.citysurvival.core.model.Enemy;
+import com.citysurvival.core.model.TileType;
+import com.citysurvival.core.model.items.Weapon;
+
+class EnemyAISystemTest {
+    @Test
+    void turnsSpreadOverFramesMatchTurnsPlannedAtOnce() {
+        for (long seed = 0; seed < 20; seed++) {
+            Random world = new Random(seed);
+            TileType[][] grid = rubble(40, 30, 0.25, world);
+            List<Enemy> once = scatter(grid, 60, world);
+            List<Enemy> framed = copy(once);
+            EnemyAISystem a = new EnemyAISystem(new Random(seed));
+            EnemyAISystem b = new EnemyAISystem(new Random(seed));
+            for (EnemyAISystem ai : List.of(a, b)) {
+                ai.setReachability(new ReachabilityMap(grid));
+                ai.setLevelOfDetail(10, 20, 3);
+            }
+
+            int px = 20;
+            int py = 15;
+            for (int turn = 0; turn < 30; turn++) {
+                a.moveEnemiesAfterPlayer(grid, once, px, py);
+
+                int[] before = positions(framed);
+                EnemyAISystem.Turn t = b.beginTurn(grid, framed, px, py);
+                int frames = 0;
+                while (!t.step(0L)) {
+                    frames++;
+                    assertArrayEquals(before, positions(framed), "moved before commit");
+                }
+                assertEquals(Math.max(0, t.awakeCount() - 1), frames, "one enemy per zero-deadline step");
+                assertArrayEquals(before, positions(framed), "moved before commit");
+                t.commit();
+
+                assertArrayEquals(positions(once), positions(framed), "seed " + seed + ", turn " + turn);
+                assertNoSharedTiles(grid, framed, px, py);
+                // Wander (never onto an enemy) so enemies keep falling asleep and waking up.
+                int nx = Math.max(0, Math.min(39, px + world.nextInt(7) - 3));
+                int ny = Math.max(0, Math.min(29, py + world.nextInt(7) - 3));
+                if (!occupied(framed, nx, ny)) {
+                    px = nx;
+                    py = ny;
+                }
+            }
+        }
+    }
+
+    @Test
+    void supersededTurnCannotBeCommitted() {
+        TileType[][] grid = grid(10, 10, TileType.FLOOR);
+        EnemyAISystem ai = new EnemyAISystem(new Random(1));
+        List<Enemy> enemies = new ArrayList<>(List.of(enemy(2, 2), enemy(7, 7)));
+        EnemyAISystem.Turn old = ai.beginTurn(grid, enemies, 5, 5);
+        assertTrue(old.step(Long.MAX_VALUE));
+        ai.beginTurn(grid, enemies, 5, 5);
+        int[] before = positions(enemies);
+        assertThrows(IllegalStateException.class, old::commit);
+        assertArrayEquals(before, positions(enemies));
+    }
+
+    @Test
+    void sleepingEnemiesAreLeftAlone() {
+        TileType[][] grid = grid(64, 64, TileType.FLOOR);
+        EnemyAISystem ai = new EnemyAISystem();
+        ai.setLevelOfDetail(8, 16, 1);
+        List<Enemy> enemies = new ArrayList<>(List.of(enemy(60, 60), enemy(50, 2), enemy(4, 4)));
+
+        for (int turn = 0; turn < 50; turn++) {
+            EnemyAISystem.Turn t = ai.beginTurn(grid, enemies, 0, 0);
+            assertEquals(1, t.awakeCount());
+            t.step(Long.MAX_VALUE);
+            t.commit();
+            // Keep the third one awake for the whole run.
+            enemies.get(2).setPos(4, 4);
+            ai.enemiesChanged();
+        }
+        assertEquals(60, enemies.get(0).x());
+        assertEquals(60, enemies.get(0).y());
+        assertEquals(50, enemies.get(1).x());
+        assertEquals(2, enemies.get(1).y());
+
+        // The player walking over wakes them.
+        assertEquals(1, ai.beginTurn(grid, enemies, 58, 58).awakeCount());
+    }
+
+    @Test
+    void sleepersStillBlockTilesUntilRemoved() {
+        // Only (0,0), (5,0) and (6,0) are open: the awake enemy at (5,0) can only step right, onto the sleeper's tile.
+        TileType[][] grid = grid(8, 2, TileType.WALL);
+        grid[0][0] = TileType.FLOOR;
+        grid[5][0] = TileType.FLOOR;
+        grid[6][0] = TileType.FLOOR;
+        EnemyAISystem ai = new EnemyAISystem();
+        ai.setFollowRange(0);
+        ai.setLevelOfDetail(5, 5, 1);
+        Enemy awake = enemy(5, 0);
+        List<Enemy> enemies = new ArrayList<>(List.of(awake, enemy(6, 0)));
+
+        for (int turn = 0; turn < 100; turn++) ai.moveEnemiesAfterPlayer(grid, enemies, 0, 0);
+        assertEquals(5, awake.x());
+
+        enemies.remove(1);
+        for (int turn = 0; turn < 200 && awake.x() == 5; turn++) ai.moveEnemiesAfterPlayer(grid, enemies, 0, 0);
+        assertEquals(6, awake.x());
+    }
+
+    @Test
+    void externallyMovedEnemiesAreReindexed() {
+        TileType[][] grid = grid(8, 2, TileType.WALL);
+        grid[0][0] = TileType.FLOOR;
+        grid[5][0] = TileType.FLOOR;
+        grid[6][0] = TileType.FLOOR;
+        grid[7][1] = TileType.FLOOR;
+        EnemyAISystem ai = new EnemyAISystem();
+        ai.setFollowRange(0);
+        ai.setLevelOfDetail(5, 5, 1);
+        Enemy awake = enemy(5, 0);
+        Enemy sleeper = enemy(6, 0);
+        List<Enemy> enemies = new ArrayList<>(List.of(awake, sleeper));
+        ai.moveEnemiesAfterPlayer(grid, enemies, 0, 0);
+
+        // Same list, same size: only enemiesChanged tells the AI that (6,0) is free now.
+        sleeper.setPos(7, 1);
+        ai.enemiesChanged();
+        for (int turn = 0; turn < 200 && awake.x() == 5; turn++) ai.moveEnemiesAfterPlayer(grid, enemies, 0, 0);
+        assertEquals(6, awake.x());
+    }
+
+    private static void assertNoSharedTiles(TileType[][] grid, List<Enemy> enemies, int px, int py) {
+        Set<Integer> seen = new HashSet<>();
+        for (Enemy e : enemies) {
+            assertTrue(grid[e.x()][e.y()].walkable, "enemy on a wall");
+            assertFalse(e.x() == px && e.y() == py, "enemy on the player");
+            assertTrue(seen.add(e.x() * 1000 + e.y()), "two enemies on " + e.x() + "," + e.y());
+        }
+    }
+
+    private static TileType[][] rubble(int width, int height, double density, Random rng) {
+        TileType[][] g = new TileType[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) g[x][y] = rng.nextDouble() < density ? TileType.WALL : TileType.FLOOR;
+        }
+        return g;
+    }
+
+    // Enemies on distinct walkable tiles, never on the player's starting tile.
+    private static List<Enemy> scatter(TileType[][] grid, int count, Random rng) {
+        List<Enemy> out = new ArrayList<>();
+        Set<Integer> used = new HashSet<>();
+        while (out.size() < count) {
+            int x = rng.nextInt(grid.length);
+            int y = rng.nextInt(grid[0].length);
+            if (!grid[x][y].walkable || (x == 20 && y == 15) || !used.add(x * 1000 + y)) continue;
+            out.add(enemy(x, y));
+        }
+        return out;
+    }
+
+    private static List<Enemy> copy(List<Enemy> enemies) {
+        List<Enemy> out = new ArrayList<>();
+        for (Enemy e : enemies) out.add(enemy(e.x(), e.y()));
+        return out;
+    }
+
+    private static boolean occupied(List<Enemy> enemies, int x, int y) {
+        for (Enemy e : enemies) {
+            if (e.x() == x && e.y() == y) return true;
+        }
+        return false;
+    }
+
+    private static int[] positions(List<Enemy> enemies) {
+        int[] out = new int[enemies.size() * 2];
+        for (int i = 0; i < enemies.size(); i++) {
+            out[2 * i] = enemies.get(i).x();
+            out[2 * i + 1] = enemies.get(i).y();
+        }
+        return out;
+    }
+
+    static TileType[][] grid(int width, int height, TileType fill) {
+        TileType[][] g = new TileType[width][height];
+        for (TileType[] column : g) Arrays.fill(column, fill);
+        return g;
+    }
+
+    static Enemy enemy(int x, int y) {
+        return new Enemy(x, y, new Weapon("Enemy Weapon L1", 1));
+    }
+}
@@ -0,0 +1,69 @@
+package com.citysurvival.core.logic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.citysurvival.core.model.TileType;
+
+class ReachabilityMapTest {
+    @Test
+    void closingACorridorSplitsAndReopeningMerges() {
+        TileType[][] grid = EnemyAISystemTest.grid(5, 1, TileType.FLOOR);
+        ReachabilityMap regions = new ReachabilityMap(grid);
+        assertTrue(regions.connected(0, 0, 4, 0));
+
+        grid[2][0] = TileType.WALL;
+        regions.tileChanged(2, 0);
+        assertFalse(regions.connected(0, 0, 4, 0));
+        assertEquals(ReachabilityMap.BLOCKED, regions.region(2, 0));
+
+        grid[2][0] = TileType.FLOOR;
+        regions.tileChanged(2, 0);
+        assertTrue(regions.connected(0, 0, 4, 0));
+    }
+
+    @Test
+    void incrementalUpdatesMatchAFullRelabelAfterRandomFlips() {
+        Random rng = new Random(47);
+        for (int map = 0; map < 50; map++) {
+            int width = 8 + rng.nextInt(25);
+            int height = 8 + rng.nextInt(25);
+            double density = 0.2 + rng.nextDouble() * 0.4;
+            TileType[][] grid = new TileType[width][height];
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) grid[x][y] = rng.nextDouble() < density ? TileType.WALL : TileType.FLOOR;
+            }
+            ReachabilityMap regions = new ReachabilityMap(grid);
+            for (int flip = 0; flip < 200; flip++) {
+                int x = rng.nextInt(width);
+                int y = rng.nextInt(height);
+                grid[x][y] = grid[x][y].walkable ? TileType.WALL : TileType.FLOOR;
+                regions.tileChanged(x, y);
+                assertSamePartition(new ReachabilityMap(grid), regions, width, height);
+            }
+        }
+    }
+
+    // Labels may differ, but they must map one-to-one onto the labels of a fresh relabel.
+    private static void assertSamePartition(ReachabilityMap expected, ReachabilityMap actual, int width, int height) {
+        Map<Integer, Integer> forward = new HashMap<>();
+        Map<Integer, Integer> backward = new HashMap<>();
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int e = expected.region(x, y);
+                int a = actual.region(x, y);
+                assertEquals(e == ReachabilityMap.BLOCKED, a == ReachabilityMap.BLOCKED, "blocked at " + x + "," + y);
+                if (e == ReachabilityMap.BLOCKED) continue;
+                assertEquals(a, forward.computeIfAbsent(e, k -> a), "region split at " + x + "," + y);
+                assertEquals(e, backward.computeIfAbsent(a, k -> e), "regions merged at " + x + "," + y);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.citysurvival.core.supabase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.citysurvival.core.bench.StandInSupabaseServer;
+
+/** {@link CloudSyncQueue} against {@link StandInSupabaseServer}, taken down and brought back on the same port. */
+class CloudSyncQueueTest {
+    @TempDir
+    Path dir;
+
+    private StandInSupabaseServer server;
+    private int port;
+    private CloudSyncQueue queue;
+
+    @BeforeEach
+    void reservePort() throws IOException {
+        try (StandInSupabaseServer s = new StandInSupabaseServer()) {
+            port = s.port();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) queue.close();
+        if (server != null) server.close();
+    }
+
+    @Test
+    void coalescesWhileOfflineAndDrainsLatestSavesOnReconnect() throws Exception {
+        queue = newQueue();
+        queue.start();
+        queue.enqueue("alice", 1, "{\"v\":1}");
+        queue.enqueue("alice", 2, "{\"v\":1}");
+        queue.enqueue("alice", 1, "{\"v\":2}");
+        queue.enqueue("bob", 1, "{\"v\":1}");
+        queue.enqueue("alice", 1, "{\"v\":3}");
+
+        assertFalse(queue.drainBatch(), "server is down");
+        assertEquals(3, queue.pendingCount());
+        assertEquals(3, queuedFiles());
+
+        // Restart the game: a fresh queue picks the coalesced saves up from disk.
+        queue.close();
+        queue = newQueue();
+        queue.start();
+        assertEquals(3, queue.pendingCount());
+        assertTrue(queue.hasPending("alice", 1));
+
+        server = new StandInSupabaseServer(port);
+        queue.retryNow();
+        await(() -> queue.pendingCount() == 0);
+
+        assertEquals(1, server.upsertCount("alice", 1));
+        assertEquals(1, server.upsertCount("alice", 2));
+        assertEquals(1, server.upsertCount("bob", 1));
+        assertEquals("{\"v\":3}", server.saveJson("alice", 1));
+        assertEquals("{\"v\":1}", server.saveJson("alice", 2));
+        assertEquals(0, queuedFiles());
+    }
+
+    @Test
+    void waitsOutTheBackoffBeforeRetrying() throws Exception {
+        // A backoff far longer than the test, so "not retried yet" can't depend on how fast the machine is.
+        queue = newQueue(3_600_000L);
+        queue.start();
+        queue.enqueue("alice", 1, "{\"v\":1}");
+        await(() -> queue.backoffMillis() > 0);
+        server = new StandInSupabaseServer(port);
+
+        Thread.sleep(300);
+        assertEquals(1, queue.pendingCount(), "retried before the backoff expired");
+        assertEquals(0, server.upsertCount("alice", 1));
+
+        queue.retryNow();
+        await(() -> queue.pendingCount() == 0);
+        assertEquals(1, server.upsertCount("alice", 1));
+        assertEquals(0, queue.backoffMillis());
+    }
+
+    @Test
+    void drainsByItselfOnceTheBackoffExpires() throws Exception {
+        queue = newQueue(50L);
+        queue.start();
+        queue.enqueue("alice", 1, "{\"v\":1}");
+        await(() -> queue.backoffMillis() > 0);
+        server = new StandInSupabaseServer(port);
+
+        await(() -> queue.pendingCount() == 0);
+        assertEquals(1, server.upsertCount("alice", 1));
+    }
+
+    @Test
+    void parksRejectedRowsWithoutBlockingTheRest() throws Exception {
+        server = new StandInSupabaseServer(port);
+        queue = newQueue();
+        // No background drains; this test drives the queue itself.
+        queue.close();
+        // The stand-in rejects slots below 1 with 400, failing the whole multi-slot upsert.
+        queue.enqueue("alice", 0, "{\"v\":1}");
+        queue.enqueue("alice", 1, "{\"v\":1}");
+
+        assertTrue(queue.drainBatch());
+        assertEquals(0, queue.pendingCount());
+        assertEquals(1, server.upsertCount("alice", 1));
+        assertEquals(0, server.upsertCount("alice", 0));
+        assertEquals(0, queuedFiles());
+        try (Stream<Path> parked = Files.list(dir.resolve("rejected"))) {
+            assertEquals(1, parked.count());
+        }
+    }
+
+    private CloudSyncQueue newQueue() {
+        return newQueue(2_000L);
+    }
+
+    private CloudSyncQueue newQueue(long minBackoffMs) {
+        SupabaseClient client = new SupabaseClient("http://127.0.0.1:" + port, "test-key");
+        return new CloudSyncQueue(new CloudSaveService(client), dir, 4, minBackoffMs);
+    }
+
+    private long queuedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".json")).count();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 15_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("timed out");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -3,9 +3,11 @@ package com.citysurvival.desktop;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.citysurvival.core.CitySurvivalGame;
+import com.citysurvival.core.StartupTimer;
 
 public class DesktopLauncher {
     public static void main(String[] args) {
+        StartupTimer.mark("main");
         Lwjgl3ApplicationConfiguration cfg = new Lwjgl3ApplicationConfiguration();
         cfg.setTitle("City Survival");
         cfg.setWindowedMode(1200, 720);